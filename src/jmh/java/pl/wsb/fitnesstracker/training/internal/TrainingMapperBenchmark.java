@@ -0,0 +1,76 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingDto;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link TrainingMapper} conversions of a whole list, as done for every training list response and import.
+ * Run with {@code mvn test -Pjmh -Djmh.benchmarks=TrainingMapperBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrainingMapperBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private User user;
+    private List<Training> trainings;
+    private List<TrainingDto> dtos;
+
+    @Setup
+    public void createTrainings() {
+        user = new User("Emma", "Johnson", LocalDate.of(1996, 5, 1), "emma.johnson@domain.com");
+        ReflectionTestUtils.setField(user, "id", 1L);
+        trainings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Training training = new Training(user, new Date(i * 60_000L), new Date(i * 60_000L + 3_600_000L),
+                    ActivityType.values()[i % ActivityType.values().length], i % 42, 8.5);
+            ReflectionTestUtils.setField(training, "id", (long) i);
+            trainings.add(training);
+        }
+        dtos = trainings.stream().map(TrainingMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<TrainingDto> toDto() {
+        List<TrainingDto> result = new ArrayList<>(trainings.size());
+        for (Training training : trainings) {
+            result.add(TrainingMapper.toDto(training));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Training> fromDto() {
+        List<Training> result = new ArrayList<>(dtos.size());
+        for (TrainingDto dto : dtos) {
+            result.add(TrainingMapper.fromDto(dto, user));
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,29 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detached users with assigned identifiers, shaped like the users loaded from the database.
+ */
+final class BenchmarkUsers {
+
+    private BenchmarkUsers() {
+    }
+
+    static List<User> create(int size) {
+        List<User> users = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            User user = new User("First" + i, "Last" + i, LocalDate.of(1980, 1, 1).plusDays(i % 10_000),
+                    "First%d.Last%d@Domain.com".formatted(i, i));
+            ReflectionTestUtils.setField(user, "id", (long) i);
+            users.add(user);
+        }
+        return users;
+    }
+
+}
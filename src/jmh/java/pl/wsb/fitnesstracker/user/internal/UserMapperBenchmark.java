@@ -0,0 +1,73 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserListItemDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link UserMapper} conversions of a whole list, as done for the user list and search responses.
+ * Run with {@code mvn test -Pjmh -Djmh.benchmarks=UserMapperBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private final UserMapper userMapper = new UserMapper();
+    private List<User> users;
+    private List<UserDto> dtos;
+
+    @Setup
+    public void createUsers() {
+        users = BenchmarkUsers.create(size);
+        dtos = users.stream().map(userMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<UserDto> toDto() {
+        List<UserDto> result = new ArrayList<>(users.size());
+        for (User user : users) {
+            result.add(userMapper.toDto(user));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<UserListItemDto> toEmailListItemDto() {
+        List<UserListItemDto> result = new ArrayList<>(users.size());
+        for (User user : users) {
+            result.add(userMapper.toEmailListItemDto(user));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<User> toEntity() {
+        List<User> result = new ArrayList<>(dtos.size());
+        for (UserDto dto : dtos) {
+            result.add(userMapper.toEntity(dto));
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,77 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserListItemDto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Service-side cost of the user searches: argument validation, email normalization, trigram extraction
+ * and the stream pipeline mapping the rows to DTOs. The repository is a stub returning {@code size} users,
+ * so the database time is excluded; the stub does not record invocations and adds a constant overhead only.
+ * Run with {@code mvn test -Pjmh -Djmh.benchmarks=UserServiceBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private final Pageable searchPage = PageRequest.of(0, 50, Sort.by("lastName", "firstName"));
+    private UserServiceImpl userService;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void createService() {
+        List<User> users = BenchmarkUsers.create(size);
+        UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        when(userRepository.findByEmailTrigrams(any(), anyLong(), anyString(), any())).thenReturn(users);
+        when(userRepository.findByEmailNormalizedContainingOrderById(anyString(), any())).thenReturn(users);
+        when(userRepository.search(any(), any())).thenReturn(users);
+        userService = new UserServiceImpl(userRepository, mock(UserCache.class, withSettings().stubOnly()));
+    }
+
+    @Benchmark
+    public List<UserListItemDto> findUserByEmailWithTrigrams() {
+        return userService.findUserByEmail("Last42@Domain", null);
+    }
+
+    @Benchmark
+    public List<UserListItemDto> findUserByEmailShortFragment() {
+        return userService.findUserByEmail("@D", null);
+    }
+
+    @Benchmark
+    public List<User> searchUsers() {
+        return userService.searchUsers("First42", null, "domain.com", LocalDate.of(1980, 1, 1), searchPage);
+    }
+
+}
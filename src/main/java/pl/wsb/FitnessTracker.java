@@ -2,8 +2,13 @@ package pl.wsb;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+/**
+ * R2DBC is configured by the reactive API itself (see {@code ReactiveDatabase}), a {@code ConnectionFactory}
+ * autoconfigured by Spring Boot would switch off the JDBC {@code DataSource} used by JPA.
+ */
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class FitnessTracker {
 
     public static void main(String[] args) {
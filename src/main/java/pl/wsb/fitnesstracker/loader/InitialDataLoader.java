@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.training.internal.TrainingRollupService;
 import pl.wsb.fitnesstracker.user.api.User;
 
 import java.text.ParseException;
@@ -24,6 +25,8 @@ import static java.util.Objects.isNull;
 /**
  * Sample init data loader. If the application is run with `loadInitialData` profile, then on application startup it will fill the database with dummy data,
  * for the manual testing purposes. Loader is triggered by {@link ContextRefreshedEvent } event
+ * For the load tests use the `generateData` profile instead, see {@link SyntheticDataGenerator}.
+ * Trainings are saved straight through the repository, so their daily rollups are rebuilt afterwards.
  */
 @Component
 @Profile("loadInitialData")
@@ -36,6 +39,8 @@ class InitialDataLoader {
 
     private final JpaRepository<Training, Long> trainingRepository;
 
+    private final TrainingRollupService trainingRollupService;
+
     @EventListener
     @Transactional
     @SuppressWarnings({"squid:S1854", "squid:S1481", "squid:S1192", "unused"})
@@ -46,7 +51,7 @@ class InitialDataLoader {
 
         List<User> sampleUserList = generateSampleUsers();
         List<Training> sampleTrainingList = generateTrainingData(sampleUserList);
-
+        trainingRollupService.rebuildRollups(sampleUserList.get(0).getId(), sampleUserList.get(sampleUserList.size() - 1).getId());
 
         log.info("Finished loading initial data");
     }
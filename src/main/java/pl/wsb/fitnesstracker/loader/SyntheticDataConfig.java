@@ -0,0 +1,22 @@
+package pl.wsb.fitnesstracker.loader;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.training.internal.TrainingRollupService;
+
+@Configuration
+@Profile("generateData")
+@EnableConfigurationProperties(SyntheticDataProperties.class)
+class SyntheticDataConfig {
+
+    @Bean
+    SyntheticDataGenerator syntheticDataGenerator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                                                  TrainingRollupService trainingRollupService, SyntheticDataProperties properties) {
+        return new SyntheticDataGenerator(jdbcTemplate, entityManagerFactory, trainingRollupService, properties);
+    }
+
+}
@@ -0,0 +1,298 @@
+package pl.wsb.fitnesstracker.loader;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.training.internal.TrainingRollupService;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates a large synthetic data set for the load tests, with the {@code generateData} profile
+ * (see {@link SyntheticDataProperties}). Users and their trainings are inserted through batched JDBC in chunks
+ * of users generated in parallel. Every chunk draws from its own random stream derived from the seed and the training
+ * identifiers are assigned up front, so the data set does not depend on the order in which the chunks complete.
+ * <p>
+ * As the rows bypass JPA, the email trigram index and the statistics are derived from them with SQL and the daily
+ * training rollups are rebuilt by {@link TrainingRollupService}, the identity and the sequence are moved past
+ * the generated identifiers and the Hibernate caches are evicted.
+ */
+@Slf4j
+class SyntheticDataGenerator {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int TRAINING_ALLOCATION_SIZE = 50;
+    private static final String[] FIRST_NAMES = {"Emma", "Ethan", "Olivia", "Daniel", "Sophia", "Liam", "Ava", "Noah",
+            "Grace", "Oliver", "Mia", "Lucas", "Zoe", "Jakub", "Julia", "Antoni", "Zofia", "Jan", "Hanna", "Filip"};
+    private static final String[] LAST_NAMES = {"Johnson", "Taylor", "Davis", "Thomas", "Baker", "Jones", "Williams",
+            "Miller", "Anderson", "Swift", "Nowak", "Kowalski", "Wisniewski", "Wojcik", "Kaminski", "Lewandowski"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TrainingRollupService trainingRollupService;
+    private final SyntheticDataProperties properties;
+    private final ActivityType[] activityTypes;
+    private final int[] cumulativeActivityWeights;
+
+    SyntheticDataGenerator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                           TrainingRollupService trainingRollupService, SyntheticDataProperties properties) {
+        if (properties.getUsers() <= 0 || properties.getChunkSize() <= 0 || properties.getParallelism() <= 0) {
+            throw new IllegalStateException("Generated users, chunk size and parallelism must be positive");
+        }
+        if (properties.getTrainingsPerUserMean() < 0 || properties.getTrainingsPerUserMax() < 0) {
+            throw new IllegalStateException("Trainings per user must not be negative");
+        }
+        if (properties.getFrom().isAfter(properties.getTo())) {
+            throw new IllegalStateException("Generated trainings must start before they end: " + properties.getFrom()
+                    + " is after " + properties.getTo());
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.trainingRollupService = trainingRollupService;
+        this.properties = properties;
+        this.activityTypes = properties.getActivityMix().isEmpty()
+                ? ActivityType.values()
+                : properties.getActivityMix().keySet().toArray(ActivityType[]::new);
+        this.cumulativeActivityWeights = new int[activityTypes.length];
+        int total = 0;
+        for (int i = 0; i < activityTypes.length; i++) {
+            int weight = properties.getActivityMix().getOrDefault(activityTypes[i], 1);
+            if (weight < 0) {
+                throw new IllegalStateException("Activity weight must not be negative: " + activityTypes[i]);
+            }
+            total += weight;
+            cumulativeActivityWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalStateException("At least one activity type must have a positive weight");
+        }
+    }
+
+    @EventListener
+    public void generate(ContextRefreshedEvent event) {
+        generate();
+    }
+
+    /**
+     * @return number of the generated trainings
+     * @throws IllegalStateException if the database already contains users or the generation fails
+     */
+    long generate() {
+        Long existingUsers = jdbcTemplate.queryForObject("select count(*) from users", Long.class);
+        if (existingUsers != null && existingUsers > 0) {
+            throw new IllegalStateException("Synthetic data can be generated only into an empty database, found "
+                    + existingUsers + " users");
+        }
+        long start = System.nanoTime();
+        long firstTrainingId = jdbcTemplate.queryForObject("select next value for trainings_seq", Long.class);
+        List<Chunk> chunks = planChunks(firstTrainingId);
+        long lastTrainingId = chunks.get(chunks.size() - 1).lastTrainingId();
+        long trainings = lastTrainingId - firstTrainingId + 1;
+        log.info("Generating {} users with {} trainings in {} chunks", properties.getUsers(), trainings, chunks.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism(),
+                new CustomizableThreadFactory("data-generator-"));
+        try {
+            List<Future<?>> futures = new ArrayList<>(chunks.size());
+            for (Chunk chunk : chunks) {
+                futures.add(executor.submit(() -> insert(chunk)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Synthetic data generation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Synthetic data generation interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // nastepne encje zapisywane przez JPA dostaja identyfikatory za wygenerowanymi
+        jdbcTemplate.execute("alter table users alter column id restart with " + (properties.getUsers() + 1));
+        jdbcTemplate.execute("alter sequence trainings_seq restart with " + (lastTrainingId + TRAINING_ALLOCATION_SIZE + 1));
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        log.info("Generated {} users with {} trainings in {} s", properties.getUsers(), trainings, elapsed.toSeconds());
+        return trainings;
+    }
+
+    /**
+     * Draws the number of trainings of every user up front, which fixes the identifiers of the trainings of each chunk.
+     * Training identifiers continue the sequence, so they never collide with the ones Hibernate has already allocated.
+     */
+    private List<Chunk> planChunks(long firstTrainingId) {
+        List<Chunk> chunks = new ArrayList<>();
+        long lastTrainingId = firstTrainingId - 1;
+        for (int firstUserId = 1, index = 0; firstUserId <= properties.getUsers(); firstUserId += properties.getChunkSize(), index++) {
+            int users = Math.min(properties.getChunkSize(), properties.getUsers() - firstUserId + 1);
+            SplittableRandom random = random(index, 0);
+            int[] trainingCounts = new int[users];
+            long chunkFirstTrainingId = lastTrainingId + 1;
+            for (int i = 0; i < users; i++) {
+                trainingCounts[i] = trainingCount(random);
+                lastTrainingId += trainingCounts[i];
+            }
+            chunks.add(new Chunk(index, firstUserId, firstUserId + users - 1, trainingCounts, chunkFirstTrainingId, lastTrainingId));
+        }
+        return chunks;
+    }
+
+    private void insert(Chunk chunk) {
+        SplittableRandom random = random(chunk.index(), 1);
+        List<Object[]> users = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> trainings = new ArrayList<>(BATCH_SIZE);
+        long trainingId = chunk.firstTrainingId();
+        for (int userId = chunk.firstUserId(); userId <= chunk.lastUserId(); userId++) {
+            users.add(userRow(userId, random));
+            if (users.size() == BATCH_SIZE) {
+                insertUsers(users);
+            }
+            for (int i = 0; i < chunk.trainingCounts()[userId - chunk.firstUserId()]; i++) {
+                trainings.add(trainingRow(trainingId++, userId, random));
+                if (trainings.size() == BATCH_SIZE) {
+                    // klucz obcy wymaga, by uzytkownicy trafili do bazy przed swoimi treningami
+                    insertUsers(users);
+                    insertTrainings(trainings);
+                }
+            }
+        }
+        insertUsers(users);
+        insertTrainings(trainings);
+        insertDerivedRows(chunk.firstUserId(), chunk.lastUserId());
+        log.debug("Generated chunk {} with users {}..{}", chunk.index(), chunk.firstUserId(), chunk.lastUserId());
+    }
+
+    private Object[] userRow(int userId, SplittableRandom random) {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String email = "%s.%s.%d@domain.com".formatted(firstName, lastName, userId);
+        LocalDate birthdate = properties.getTo().minusYears(16).minusDays(random.nextInt(365 * 64));
+        return new Object[]{userId, firstName, User.normalizeName(firstName), lastName, User.normalizeName(lastName),
+                Date.valueOf(birthdate), email, User.normalizeEmail(email)};
+    }
+
+    private Object[] trainingRow(long trainingId, int userId, SplittableRandom random) {
+        long days = ChronoUnit.DAYS.between(properties.getFrom(), properties.getTo()) + 1;
+        LocalDateTime start = properties.getFrom().atStartOfDay()
+                .plusDays(random.nextLong(days))
+                .plusMinutes(5L * random.nextInt(6 * 12, 22 * 12));
+        int minutes = 20 + random.nextInt(101);
+        ActivityType activityType = activityType(random);
+        double averageSpeed = round(averageSpeed(activityType, random));
+        double distance = round(averageSpeed * minutes / 60);
+        return new Object[]{trainingId, userId, Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(minutes)),
+                activityType.ordinal(), distance, averageSpeed};
+    }
+
+    private int trainingCount(SplittableRandom random) {
+        double mean = properties.getTrainingsPerUserMean();
+        long count = switch (properties.getTrainingsPerUserDistribution()) {
+            case UNIFORM -> random.nextLong((long) Math.floor(2 * mean) + 1);
+            case EXPONENTIAL -> mean == 0 ? 0 : (long) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(mean / (mean + 1)));
+        };
+        return (int) Math.min(count, properties.getTrainingsPerUserMax());
+    }
+
+    private ActivityType activityType(SplittableRandom random) {
+        int value = random.nextInt(cumulativeActivityWeights[cumulativeActivityWeights.length - 1]);
+        for (int i = 0; i < cumulativeActivityWeights.length; i++) {
+            if (value < cumulativeActivityWeights[i]) {
+                return activityTypes[i];
+            }
+        }
+        throw new IllegalStateException("Activity weight out of range: " + value);
+    }
+
+    private static double averageSpeed(ActivityType activityType, SplittableRandom random) {
+        return switch (activityType) {
+            case RUNNING -> random.nextDouble(8, 14);
+            case CYCLING -> random.nextDouble(15, 30);
+            case WALKING -> random.nextDouble(4, 6);
+            case SWIMMING -> random.nextDouble(2, 4);
+            case TENNIS -> random.nextDouble(3, 6);
+        };
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    /**
+     * @param chunk   index of the chunk
+     * @param purpose separates the stream of the training counts from the stream of the rows of the same chunk
+     */
+    private SplittableRandom random(int chunk, int purpose) {
+        return new SplittableRandom(properties.getSeed() * 31 * 31 + chunk * 31L + purpose);
+    }
+
+    private void insertUsers(List<Object[]> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into users (id, first_name, first_name_normalized, last_name, last_name_normalized, birthdate, email, email_normalized)
+                values (?, ?, ?, ?, ?, ?, ?, ?)
+                """, users);
+        users.clear();
+    }
+
+    private void insertTrainings(List<Object[]> trainings) {
+        if (trainings.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into trainings (id, user_id, start_time, end_time, activity_type, distance, average_speed)
+                values (?, ?, ?, ?, ?, ?, ?)
+                """, trainings);
+        trainings.clear();
+    }
+
+    /**
+     * Rows maintained by the listeners and the services when the data is written through JPA.
+     */
+    private void insertDerivedRows(int firstUserId, int lastUserId) {
+        // zakres pozycji trigramow ograniczony do najdluzszego emaila porcji, zamiast maksymalnej dlugosci kolumny
+        Integer maxEmailLength = jdbcTemplate.queryForObject("select max(length(email_normalized)) from users where id between ? and ?",
+                Integer.class, firstUserId, lastUserId);
+        jdbcTemplate.update("""
+                insert into user_email_trigrams (trigram, user_id)
+                select distinct substring(u.email_normalized, r.x, 3), u.id
+                from users u join system_range(1, ?) r on r.x <= length(u.email_normalized) - 2
+                where u.id between ? and ?
+                """, maxEmailLength, firstUserId, lastUserId);
+        jdbcTemplate.update("""
+                insert into statistics (user_id, total_trainings, total_distance, total_calories_burned)
+                select user_id, count(*), sum(distance), 0 from trainings
+                where user_id between ? and ?
+                group by user_id
+                """, firstUserId, lastUserId);
+        trainingRollupService.rebuildRollups(firstUserId, lastUserId);
+    }
+
+    private record Chunk(int index, int firstUserId, int lastUserId, int[] trainingCounts,
+                         long firstTrainingId, long lastTrainingId) {
+
+    }
+
+}
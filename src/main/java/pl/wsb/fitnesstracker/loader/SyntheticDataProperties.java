@@ -0,0 +1,105 @@
+package pl.wsb.fitnesstracker.loader;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Configuration of the synthetic data set generated with the {@code generateData} profile.
+ */
+@ConfigurationProperties(prefix = "generator")
+@Getter
+class SyntheticDataProperties {
+
+    /**
+     * Seed of the generated data, the same seed and configuration always produce the same rows.
+     */
+    private final long seed;
+
+    /**
+     * Number of generated users.
+     */
+    private final int users;
+
+    /**
+     * Mean number of trainings per user.
+     */
+    private final double trainingsPerUserMean;
+
+    /**
+     * Maximal number of trainings of a single user.
+     */
+    private final int trainingsPerUserMax;
+
+    /**
+     * Distribution of the number of trainings per user.
+     */
+    private final TrainingsDistribution trainingsPerUserDistribution;
+
+    /**
+     * First day of the generated trainings.
+     */
+    private final LocalDate from;
+
+    /**
+     * Last day of the generated trainings.
+     */
+    private final LocalDate to;
+
+    /**
+     * Relative weights of the activity types of the generated trainings, all types are equally likely when empty.
+     */
+    private final Map<ActivityType, Integer> activityMix;
+
+    /**
+     * Number of users generated, with their trainings, by a single task.
+     */
+    private final int chunkSize;
+
+    /**
+     * Number of chunks generated in parallel.
+     */
+    private final int parallelism;
+
+    SyntheticDataProperties(@DefaultValue("42") long seed,
+                            @DefaultValue("1000000") int users,
+                            @DefaultValue("10") double trainingsPerUserMean,
+                            @DefaultValue("1000") int trainingsPerUserMax,
+                            @DefaultValue("EXPONENTIAL") TrainingsDistribution trainingsPerUserDistribution,
+                            @DefaultValue("2023-01-01") LocalDate from,
+                            @DefaultValue("2024-12-31") LocalDate to,
+                            @DefaultValue Map<ActivityType, Integer> activityMix,
+                            @DefaultValue("10000") int chunkSize,
+                            @DefaultValue("4") int parallelism) {
+        this.seed = seed;
+        this.users = users;
+        this.trainingsPerUserMean = trainingsPerUserMean;
+        this.trainingsPerUserMax = trainingsPerUserMax;
+        this.trainingsPerUserDistribution = trainingsPerUserDistribution;
+        this.from = from;
+        this.to = to;
+        this.activityMix = activityMix.isEmpty() ? new EnumMap<>(ActivityType.class) : new EnumMap<>(activityMix);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    enum TrainingsDistribution {
+
+        /**
+         * Every count from zero to twice the mean is equally likely.
+         */
+        UNIFORM,
+
+        /**
+         * Most users train rarely and a few very often, with the geometric (discrete exponential) distribution.
+         */
+        EXPONENTIAL
+
+    }
+
+}
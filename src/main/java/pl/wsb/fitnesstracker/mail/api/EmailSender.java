@@ -1,5 +1,7 @@
 package pl.wsb.fitnesstracker.mail.api;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * API interface for component responsible for sending emails.
  */
@@ -9,7 +11,9 @@ public interface EmailSender {
      * Sends the email message to the recipient from the provided {@link EmailDto}.
      *
      * @param email information on email to be sent
+     * @return future completed when the email is delivered to the SMTP server, or completed exceptionally when
+     * the email could not be delivered
      */
-    void send(EmailDto email);
+    CompletableFuture<Void> send(EmailDto email);
 
 }
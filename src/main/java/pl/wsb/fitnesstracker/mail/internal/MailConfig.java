@@ -1,10 +1,46 @@
 package pl.wsb.fitnesstracker.mail.internal;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
 
 @Configuration
 @EnableConfigurationProperties(MailProperties.class)
 class MailConfig {
 
+    /**
+     * The {@link JavaMailSender} is autoconfigured by Spring only if the SMTP host is configured,
+     * so the email sender is created under the same condition. The sender manages the SMTP connections itself,
+     * so it needs the {@link JavaMailSenderImpl} (autoconfigured by Spring) for the mail session and server settings.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.mail", name = "host")
+    QueuedEmailSender queuedEmailSender(JavaMailSenderImpl javaMailSender, MailProperties mailProperties, MeterRegistry meterRegistry,
+                                        Environment environment) {
+        return new QueuedEmailSender(javaMailSender, mailProperties, meterRegistry, workerThreadFactory(environment));
+    }
+
+    /**
+     * Workers block on the SMTP communication most of the time, so they run on virtual threads when
+     * {@code spring.threads.virtual.enabled} is set (Java 21+), and on the daemon platform threads otherwise.
+     */
+    private static ThreadFactory workerThreadFactory(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("mail-sender-").getVirtualThreadFactory();
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("mail-sender-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
 }
@@ -1,17 +1,18 @@
 package pl.wsb.fitnesstracker.mail.internal;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.mail.javamail.JavaMailSender;
 import pl.wsb.fitnesstracker.mail.api.EmailSender;
 
+import java.time.Duration;
+
 /**
  * Configuration of the {@link EmailSender} (additional to the Spring mail configuration for {@link JavaMailSender} bean autoconfiguration).
  */
 @ConfigurationProperties(prefix = "mail")
 @Getter
-@RequiredArgsConstructor
 class MailProperties {
 
     /**
@@ -19,4 +20,65 @@ class MailProperties {
      */
     private final String from;
 
+    /**
+     * Maximal number of emails waiting to be sent. When the queue is full, the senders are blocked (backpressure).
+     */
+    private final int queueCapacity;
+
+    /**
+     * Maximal time the sender waits for the free space in the queue, before the email is rejected.
+     */
+    private final Duration enqueueTimeout;
+
+    /**
+     * Number of worker threads sending the queued emails. Every worker keeps its own SMTP connection,
+     * so this is also the limit of concurrent connections to the SMTP server.
+     */
+    private final int workers;
+
+    /**
+     * Maximal number of emails taken from the queue and sent together by a worker.
+     */
+    private final int batchSize;
+
+    /**
+     * Maximal number of attempts of sending a single email.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Delay before the first retry, doubled with every next attempt.
+     */
+    private final Duration initialBackoff;
+
+    /**
+     * Maximal number of emails sent over a single SMTP connection before it is reopened.
+     */
+    private final int maxMessagesPerConnection;
+
+    /**
+     * Time after which the SMTP connection of the worker with no emails to send is closed.
+     */
+    private final Duration connectionIdleTimeout;
+
+    MailProperties(String from,
+                   @DefaultValue("1000") int queueCapacity,
+                   @DefaultValue("30s") Duration enqueueTimeout,
+                   @DefaultValue("2") int workers,
+                   @DefaultValue("50") int batchSize,
+                   @DefaultValue("3") int maxAttempts,
+                   @DefaultValue("1s") Duration initialBackoff,
+                   @DefaultValue("100") int maxMessagesPerConnection,
+                   @DefaultValue("30s") Duration connectionIdleTimeout) {
+        this.from = from;
+        this.queueCapacity = queueCapacity;
+        this.enqueueTimeout = enqueueTimeout;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.connectionIdleTimeout = connectionIdleTimeout;
+    }
+
 }
@@ -0,0 +1,219 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Asynchronous {@link EmailSender} backed by the {@link JavaMailSenderImpl}.
+ * <p>
+ * Emails are put to the bounded queue and sent by a pool of worker threads, so the caller is not blocked by the SMTP
+ * communication. When the queue is full, the caller waits up to {@link MailProperties#getEnqueueTimeout()} for the free
+ * space (backpressure) and the email is rejected if there is still no space after that time.
+ * Workers send the queued emails in batches of up to {@link MailProperties#getBatchSize()} messages and retry failed
+ * messages with the exponential backoff, up to {@link MailProperties#getMaxAttempts()} attempts.
+ * Every worker keeps its SMTP connection open between the batches (see {@link SmtpConnection}) and closes it after
+ * {@link MailProperties#getConnectionIdleTimeout()} without emails to send.
+ * The future returned for every email is completed once the email is delivered to the SMTP server, and completed
+ * exceptionally when the email is dropped (invalid address, all attempts failed or the sender stopped before sending it),
+ * so the callers can tell the delivered emails from the lost ones.
+ * Workers are created by the given {@link ThreadFactory}, so they run on virtual threads when those are enabled
+ * (see {@link MailConfig}).
+ */
+@Slf4j
+class QueuedEmailSender implements EmailSender {
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private final JavaMailSenderImpl mailSender;
+    private final MailProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final BlockingQueue<QueuedEmail> queue;
+    private final ThreadFactory threadFactory;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    QueuedEmailSender(JavaMailSenderImpl mailSender, MailProperties properties, MeterRegistry meterRegistry,
+                      ThreadFactory threadFactory) {
+        this.mailSender = mailSender;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.threadFactory = threadFactory;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        requireNonNull(properties.getFrom(), "mail.from has to be configured to send emails");
+        Gauge.builder("mail.queue.size", queue, BlockingQueue::size)
+                .description("Number of emails waiting to be sent")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the email to be sent asynchronously.
+     *
+     * @param email information on email to be sent
+     * @return future completed when the email is delivered, or completed exceptionally when it is dropped
+     * @throws IllegalStateException if the sender is stopped or the queue stayed full for longer than the enqueue timeout
+     */
+    @Override
+    public CompletableFuture<Void> send(EmailDto email) {
+        if (!running) {
+            throw new IllegalStateException("Email sender is not running");
+        }
+        QueuedEmail queued = new QueuedEmail(email, new CompletableFuture<>());
+        try {
+            if (!queue.offer(queued, properties.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Email queue is full, email to %s was rejected".formatted(email.toAddress()));
+            }
+            return queued.sent();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing email to " + email.toAddress(), e);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            Thread worker = threadFactory.newThread(this::processQueue);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Stops accepting new emails and waits until the already queued ones are sent.
+     * Emails still queued after the shutdown timeout are dropped and their futures completed exceptionally.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MILLIS;
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            worker.interrupt();
+        }
+        List<QueuedEmail> unsent = new ArrayList<>();
+        queue.drainTo(unsent);
+        if (!unsent.isEmpty()) {
+            log.warn("Email sender stopped with {} emails not sent", unsent.size());
+            unsent.forEach(QueuedEmailSender::failStopped);
+        }
+    }
+
+    private void processQueue() {
+        List<QueuedEmail> batch = new ArrayList<>(properties.getBatchSize());
+        long idleTimeout = properties.getConnectionIdleTimeout().toMillis();
+        long lastSent = System.currentTimeMillis();
+        try (SmtpConnection connection = new SmtpConnection(mailSender, properties, meterRegistry)) {
+            while (running || !queue.isEmpty()) {
+                try {
+                    QueuedEmail first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        if (connection.isOpen() && System.currentTimeMillis() - lastSent > idleTimeout) {
+                            connection.close();
+                        }
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, properties.getBatchSize() - 1);
+                    sendWithRetry(connection, batch);
+                    lastSent = System.currentTimeMillis();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    // interrupted during the backoff, the rest of the batch will not be retried
+                    batch.forEach(QueuedEmailSender::failStopped);
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private void sendWithRetry(SmtpConnection connection, List<QueuedEmail> batch) throws InterruptedException {
+        Map<MimeMessage, QueuedEmail> messages = toMessages(batch);
+        List<MimeMessage> pending = List.copyOf(messages.keySet());
+        long backoff = properties.getInitialBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            List<MimeMessage> failed = connection.send(pending);
+            pending.stream()
+                    .filter(message -> !failed.contains(message))
+                    .forEach(message -> messages.get(message).sent().complete(null));
+            pending = failed;
+            if (pending.isEmpty()) {
+                return;
+            }
+            if (attempt >= properties.getMaxAttempts()) {
+                for (MimeMessage message : pending) {
+                    QueuedEmail email = messages.get(message);
+                    log.error("Email to {} was not sent after {} attempts", email.email().toAddress(), properties.getMaxAttempts());
+                    email.sent().completeExceptionally(new IllegalStateException("Email to %s was not sent after %d attempts"
+                            .formatted(email.email().toAddress(), properties.getMaxAttempts())));
+                }
+                return;
+            }
+            log.warn("Sending of {} emails failed (attempt {}), retrying in {} ms", pending.size(), attempt, backoff);
+            Thread.sleep(backoff);
+            backoff *= 2;
+        }
+    }
+
+    /**
+     * Creates the messages for the emails. Emails that cannot be converted (e.g. with invalid address) are dropped,
+     * as retrying them would not help.
+     */
+    private Map<MimeMessage, QueuedEmail> toMessages(List<QueuedEmail> emails) {
+        Map<MimeMessage, QueuedEmail> messages = new LinkedHashMap<>();
+        for (QueuedEmail email : emails) {
+            try {
+                messages.put(toMessage(email.email()), email);
+            } catch (MessagingException e) {
+                log.error("Email to {} is invalid and will not be sent", email.email().toAddress(), e);
+                email.sent().completeExceptionally(e);
+            }
+        }
+        return messages;
+    }
+
+    private static void failStopped(QueuedEmail email) {
+        if (!email.sent().isDone()) {
+            email.sent().completeExceptionally(new IllegalStateException(
+                    "Email sender stopped before email to %s was sent".formatted(email.email().toAddress())));
+        }
+    }
+
+    private MimeMessage toMessage(EmailDto email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(properties.getFrom());
+        helper.setTo(email.toAddress());
+        helper.setSubject(email.subject());
+        helper.setText(email.content());
+        return message;
+    }
+
+    private record QueuedEmail(EmailDto email, CompletableFuture<Void> sent) {
+    }
+
+}
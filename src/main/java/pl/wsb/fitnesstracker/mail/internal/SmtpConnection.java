@@ -0,0 +1,118 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nullable;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SMTP connection kept open between the batches of emails.
+ * <p>
+ * Opening the connection (TCP, TLS handshake and authentication) is the most expensive part of sending an email,
+ * so the connection is reused for up to {@link MailProperties#getMaxMessagesPerConnection()} messages and reopened
+ * only when that limit is reached, the connection was dropped by the server or sending over it failed.
+ * Not thread safe - every mail worker owns its own connection.
+ */
+@Slf4j
+class SmtpConnection implements AutoCloseable {
+
+    private final JavaMailSenderImpl mailSender;
+    private final int maxMessagesPerConnection;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter opened;
+    private final Counter reused;
+
+    @Nullable
+    private Transport transport;
+    private int sentOverConnection;
+
+    SmtpConnection(JavaMailSenderImpl mailSender, MailProperties properties, MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.maxMessagesPerConnection = properties.getMaxMessagesPerConnection();
+        this.sent = Counter.builder("mail.messages").tag("outcome", "sent")
+                .description("Number of email messages handed over to the SMTP server")
+                .register(meterRegistry);
+        this.failed = Counter.builder("mail.messages").tag("outcome", "failed")
+                .description("Number of email messages handed over to the SMTP server")
+                .register(meterRegistry);
+        this.opened = Counter.builder("mail.connections.opened")
+                .description("Number of opened SMTP connections")
+                .register(meterRegistry);
+        this.reused = Counter.builder("mail.connections.reused")
+                .description("Number of messages sent over an already used SMTP connection")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends the messages over the open connection, opening a new one when needed.
+     *
+     * @param messages messages to be sent
+     * @return messages that could not be sent
+     */
+    List<MimeMessage> send(List<MimeMessage> messages) {
+        List<MimeMessage> failedMessages = new ArrayList<>();
+        for (MimeMessage message : messages) {
+            try {
+                Transport connected = connectedTransport();
+                message.saveChanges();
+                connected.sendMessage(message, message.getAllRecipients());
+                if (sentOverConnection > 0) {
+                    reused.increment();
+                }
+                sentOverConnection++;
+                sent.increment();
+            } catch (MessagingException e) {
+                log.warn("Sending of email message failed, SMTP connection will be reopened", e);
+                failed.increment();
+                failedMessages.add(message);
+                close();
+            }
+        }
+        return failedMessages;
+    }
+
+    /**
+     * @return {@code true} if the connection to the SMTP server is currently open
+     */
+    boolean isOpen() {
+        return transport != null;
+    }
+
+    @Override
+    public void close() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Closing of SMTP connection failed", e);
+        } finally {
+            transport = null;
+        }
+    }
+
+    private Transport connectedTransport() throws MessagingException {
+        if (transport != null && (sentOverConnection >= maxMessagesPerConnection || !transport.isConnected())) {
+            close();
+        }
+        if (transport == null) {
+            String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : JavaMailSenderImpl.DEFAULT_PROTOCOL;
+            Transport newTransport = mailSender.getSession().getTransport(protocol);
+            newTransport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+            transport = newTransport;
+            sentOverConnection = 0;
+            opened.increment();
+        }
+        return transport;
+    }
+
+}
@@ -0,0 +1,175 @@
+package pl.wsb.fitnesstracker.metrics.internal;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Nullable;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import pl.wsb.fitnesstracker.pagination.api.CursorPage;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Times the calls of the service implementations and of every repository, and records the number of rows they return.
+ * <p>
+ * Each call is recorded by the {@code service.duration} or {@code repository.duration} timer, tagged with the called
+ * {@code class} and {@code method}, the {@code outcome} ({@code success} or {@code error}) and the thrown
+ * {@code exception}. Calls returning a collection, a page, an optional or a {@link CursorPage} additionally record
+ * the number of returned rows in the {@code service.rows} or {@code repository.rows} distribution summary.
+ * All meters publish percentile histograms, so the quantiles can be aggregated across instances in Prometheus.
+ * <p>
+ * Meters are resolved once per called method and thrown exception type, so a call does not build any tags.
+ * Repository methods returning a reactive {@code Publisher} or a {@link java.util.stream.Stream} are not timed,
+ * as the call only opens the query and the rows are read later by the caller.
+ */
+@Aspect
+@Component
+class MethodMetricsAspect {
+
+    static final String SERVICE = "service";
+    static final String REPOSITORY = "repository";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<MeterKey, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    MethodMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * pl.wsb.fitnesstracker.training.internal.TrainingServiceImpl.*(..))"
+            + " || execution(public * pl.wsb.fitnesstracker.user.internal.UserServiceImpl.*(..))"
+            + " || execution(public * pl.wsb.fitnesstracker.report.internal.ReportServiceImpl.*(..))")
+    Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, SERVICE);
+    }
+
+    @Around("(target(org.springframework.data.repository.Repository)"
+            + " || @within(org.springframework.stereotype.Repository))"
+            + " && !execution(org.reactivestreams.Publisher+ *(..))"
+            + " && !execution(java.util.stream.Stream+ *(..))")
+    Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, REPOSITORY);
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        MethodMeters methodMeters = meters.computeIfAbsent(
+                new MeterKey(layer, targetType(joinPoint.getTarget()), ((MethodSignature) joinPoint.getSignature()).getMethod()),
+                this::register);
+        Clock clock = meterRegistry.config().clock();
+        long start = clock.monotonicTime();
+        try {
+            Object result = joinPoint.proceed();
+            methodMeters.success().record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+            methodMeters.recordRows(result);
+            return result;
+        } catch (Throwable e) {
+            methodMeters.error(e.getClass()).record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    /**
+     * Spring Data repositories are JDK proxies, so they are named after the declared repository interface.
+     */
+    private static Class<?> targetType(Object target) {
+        Class<?> type = ClassUtils.getUserClass(target);
+        if (!Proxy.isProxyClass(type)) {
+            return type;
+        }
+        return Arrays.stream(type.getInterfaces())
+                .filter(Repository.class::isAssignableFrom)
+                .findFirst()
+                .orElse(type);
+    }
+
+    private MethodMeters register(MeterKey key) {
+        String className = key.type().getSimpleName();
+        String methodName = key.method().getName();
+        Timer success = timer(key.layer(), className, methodName, "success", "none");
+        DistributionSummary rows = returnsRows(key.method().getReturnType())
+                ? DistributionSummary.builder(key.layer() + ".rows")
+                        .tag("class", className)
+                        .tag("method", methodName)
+                        .description("Number of rows returned by a single call")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                : null;
+        return new MethodMeters(success, rows, new ConcurrentHashMap<>(),
+                exception -> timer(key.layer(), className, methodName, "error", exception.getSimpleName()));
+    }
+
+    private Timer timer(String layer, String className, String methodName, String outcome, String exception) {
+        return Timer.builder(layer + ".duration")
+                .tag("class", className)
+                .tag("method", methodName)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .description("Time of a single call")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static boolean returnsRows(Class<?> returnType) {
+        return Collection.class.isAssignableFrom(returnType) || Slice.class.isAssignableFrom(returnType)
+                || Optional.class == returnType || CursorPage.class == returnType;
+    }
+
+    /**
+     * Number of rows of the call result or {@code -1} when the result is not a list of rows.
+     */
+    static int rowCount(@Nullable Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof CursorPage<?> page) {
+            return page.items().size();
+        }
+        return -1;
+    }
+
+    private record MeterKey(String layer, Class<?> type, Method method) {
+    }
+
+    private record MethodMeters(Timer success, @Nullable DistributionSummary rows,
+                                Map<Class<? extends Throwable>, Timer> errors,
+                                Function<Class<? extends Throwable>, Timer> errorTimer) {
+
+        Timer error(Class<? extends Throwable> exception) {
+            return errors.computeIfAbsent(exception, errorTimer);
+        }
+
+        void recordRows(@Nullable Object result) {
+            if (this.rows == null) {
+                return;
+            }
+            int rows = rowCount(result);
+            if (rows >= 0) {
+                this.rows.record(rows);
+            }
+        }
+
+    }
+
+}
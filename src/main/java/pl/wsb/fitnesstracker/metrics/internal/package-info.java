@@ -0,0 +1,4 @@
+@NonNullByDefault
+package pl.wsb.fitnesstracker.metrics.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -0,0 +1,72 @@
+package pl.wsb.fitnesstracker.pagination.api;
+
+import jakarta.annotation.Nullable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Single page of a keyset (cursor) paginated result.
+ * The {@link #nextCursor()} is an opaque token that should be passed back to fetch the following page,
+ * it is {@code null} when there are no more elements.
+ *
+ * @param items      elements of the page, in the order of the keyset
+ * @param nextCursor token of the next page or {@code null} if this is the last page
+ * @param <T>        type of the page element
+ */
+public record CursorPage<T>(List<T> items, @Nullable String nextCursor) {
+
+    /**
+     * Default number of elements returned on a single page.
+     */
+    public static final int DEFAULT_LIMIT = 50;
+
+    /**
+     * Maximal number of elements that might be requested on a single page.
+     */
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * Builds a page from rows fetched with the limit of {@code limit + 1}.
+     * The additional row is used only to detect if there is a next page and is not returned to the client.
+     *
+     * @param rows     rows fetched from the database (at most {@code limit + 1})
+     * @param limit    requested page size
+     * @param cursorOf function building the keyset cursor of the given row
+     * @param <T>      type of the page element
+     * @return page containing at most {@code limit} elements
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, KeysetCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(List.copyOf(items), cursorOf.apply(items.get(limit - 1)).encode());
+    }
+
+    /**
+     * Converts the elements of the page, keeping the cursor of the next page.
+     *
+     * @param mapper function converting the single element
+     * @param <R>    type of the converted element
+     * @return page of the converted elements
+     */
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+
+    /**
+     * Validates the page size requested by the client.
+     *
+     * @param limit requested page size
+     * @return validated page size
+     * @throws InvalidCursorException if the limit is outside of {@code [1, MAX_LIMIT]}
+     */
+    public static int validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidCursorException("Limit must be between 1 and %s".formatted(MAX_LIMIT));
+        }
+        return limit;
+    }
+
+}
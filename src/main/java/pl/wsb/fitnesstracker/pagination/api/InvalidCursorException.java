@@ -0,0 +1,14 @@
+package pl.wsb.fitnesstracker.pagination.api;
+
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+
+/**
+ * Exception indicating that the pagination parameters (cursor or limit) sent by the client are invalid.
+ */
+public class InvalidCursorException extends BusinessException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,47 @@
+package pl.wsb.fitnesstracker.pagination.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset ordered by {@code (sortKey, id)}.
+ * The cursor is serialized to the opaque, URL safe token, so the clients should not depend on its format.
+ *
+ * @param sortKey value of the sort column of the last returned row, serialized to {@link String}
+ * @param id      id of the last returned row, used as a tie-breaker for equal sort keys
+ */
+public record KeysetCursor(String sortKey, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Encodes the cursor to the opaque token.
+     *
+     * @return URL safe token representing the cursor
+     */
+    public String encode() {
+        String raw = sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the cursor from the token previously created with {@link #encode()}.
+     *
+     * @param token token received from the client
+     * @return decoded cursor
+     * @throws InvalidCursorException if the token is malformed
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("Invalid cursor: " + token);
+            }
+            return new KeysetCursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+
+}
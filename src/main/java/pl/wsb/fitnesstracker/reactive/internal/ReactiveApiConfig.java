@@ -0,0 +1,52 @@
+package pl.wsb.fitnesstracker.reactive.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.util.List;
+
+/**
+ * The reactive {@code /v2} read API: the modules contribute their routes as {@link RouterFunction} beans
+ * and read the database with the {@link DatabaseClient}, all of them are served by one {@link ReactiveApiServer}.
+ * JSON is written by the application's {@link ObjectMapper}, so {@code /v2} renders the same documents as {@code /v1}.
+ */
+@Configuration
+@EnableConfigurationProperties(ReactiveApiProperties.class)
+class ReactiveApiConfig {
+
+    @Bean
+    ReactiveDatabase reactiveDatabase(DataSourceProperties dataSourceProperties, ReactiveApiProperties properties) {
+        return new ReactiveDatabase(dataSourceProperties, properties);
+    }
+
+    @Bean
+    DatabaseClient reactiveDatabaseClient(ReactiveDatabase reactiveDatabase) {
+        return reactiveDatabase.client();
+    }
+
+    @Bean
+    ReactiveApiServer reactiveApiServer(List<RouterFunction<ServerResponse>> routes, ObjectMapper objectMapper,
+                                        ReactiveApiProperties properties) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        RouterFunction<ServerResponse> router = routes.stream()
+                .reduce(RouterFunction::and)
+                .orElseThrow(() -> new IllegalStateException("No routes of the reactive API"));
+        return new ReactiveApiServer(RouterFunctions.toHttpHandler(router, strategies), properties.getPort());
+    }
+
+}
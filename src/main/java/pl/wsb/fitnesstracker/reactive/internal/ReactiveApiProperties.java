@@ -0,0 +1,29 @@
+package pl.wsb.fitnesstracker.reactive.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the reactive {@code /v2} read API.
+ */
+@ConfigurationProperties(prefix = "reactive")
+@Getter
+class ReactiveApiProperties {
+
+    /**
+     * Port of the Reactor Netty server serving the {@code /v2} API, {@code 0} for a random port.
+     */
+    private final int port;
+
+    /**
+     * Maximum number of R2DBC connections. Every open {@code /v2} stream holds one until it completes.
+     */
+    private final int maxConnections;
+
+    ReactiveApiProperties(@DefaultValue("9091") int port, @DefaultValue("10") int maxConnections) {
+        this.port = port;
+        this.maxConnections = maxConnections;
+    }
+
+}
@@ -0,0 +1,54 @@
+package pl.wsb.fitnesstracker.reactive.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Reactor Netty server of the {@code /v2} API, running next to the servlet container of the MVC API.
+ * Responses are written as the database emits rows and the rows are requested only as fast as the socket accepts
+ * the written data, so a slow client holds neither a thread nor a buffered result.
+ */
+@Slf4j
+class ReactiveApiServer implements SmartLifecycle {
+
+    private final HttpHandler httpHandler;
+    private final int port;
+    private volatile DisposableServer server;
+
+    ReactiveApiServer(HttpHandler httpHandler, int port) {
+        this.httpHandler = httpHandler;
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("Reactive API started on port {}", server.port());
+    }
+
+    @Override
+    public void stop() {
+        server.disposeNow();
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * @return port the server listens on, resolved when started on a random port
+     */
+    int getPort() {
+        return server.port();
+    }
+
+}
@@ -0,0 +1,56 @@
+package pl.wsb.fitnesstracker.reactive.internal;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Pool of the R2DBC connections to the same H2 database the JPA {@code DataSource} uses.
+ * <p>
+ * The pool is deliberately not exposed as a {@code ConnectionFactory} bean: Spring Boot backs off from configuring
+ * the JDBC {@code DataSource} (and so JPA) as soon as such a bean exists. Queries run with H2's lazy query execution,
+ * so rows are read from the database only as the subscribers request them.
+ */
+class ReactiveDatabase implements DisposableBean {
+
+    private static final String H2_URL_PREFIX = "jdbc:h2:";
+
+    private final ConnectionPool pool;
+    private final DatabaseClient client;
+
+    ReactiveDatabase(DataSourceProperties dataSourceProperties, ReactiveApiProperties properties) {
+        String jdbcUrl = dataSourceProperties.determineUrl();
+        if (jdbcUrl == null || !jdbcUrl.startsWith(H2_URL_PREFIX)) {
+            throw new IllegalStateException("Reactive API supports only the H2 database, configured URL: " + jdbcUrl);
+        }
+        H2ConnectionConfiguration.Builder configuration = H2ConnectionConfiguration.builder()
+                .url(jdbcUrl.substring(H2_URL_PREFIX.length()))
+                .option("LAZY_QUERY_EXECUTION=TRUE");
+        String username = dataSourceProperties.determineUsername();
+        if (username != null) {
+            configuration.username(username);
+        }
+        String password = dataSourceProperties.determinePassword();
+        if (password != null) {
+            configuration.password(password);
+        }
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(new H2ConnectionFactory(configuration.build()))
+                .maxSize(properties.getMaxConnections())
+                .build());
+        this.client = DatabaseClient.create(pool);
+    }
+
+    DatabaseClient client() {
+        return client;
+    }
+
+    @Override
+    public void destroy() {
+        pool.dispose();
+    }
+
+}
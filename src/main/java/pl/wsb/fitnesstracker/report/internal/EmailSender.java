@@ -2,10 +2,19 @@ package pl.wsb.fitnesstracker.report.internal;
 
 import pl.wsb.fitnesstracker.report.api.MonthlyTrainingReportDto;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * interfejs odpowiedizalny za wysylanie raportow mailowych do userow
  */
 
 interface EmailSender {
-    void sendReport(MonthlyTrainingReportDto report);
+
+    /**
+     * wysyla raport do usera
+     *
+     * @param report raport do wyslania
+     * @return potwierdzenie wysylki, zakonczone bledem jesli raport nie zostal dostarczony
+     */
+    CompletableFuture<Void> sendReport(MonthlyTrainingReportDto report);
 }
\ No newline at end of file
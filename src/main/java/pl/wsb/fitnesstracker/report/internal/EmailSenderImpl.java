@@ -1,19 +1,45 @@
 package pl.wsb.fitnesstracker.report.internal;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
 import pl.wsb.fitnesstracker.report.api.MonthlyTrainingReportDto;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * implementacja interfejsu wykorzystujaca usluge email do wyyslki raportow
+ * jesli wysylka maili nie jest skonfigurowana (brak spring.mail.host), raport jest tylko logowany
+ * i od razu potwierdzany
  */
 
 @Component
 @Slf4j
 public class EmailSenderImpl implements EmailSender {
+
+    private final ObjectProvider<pl.wsb.fitnesstracker.mail.api.EmailSender> mailSender;
+
+    EmailSenderImpl(ObjectProvider<pl.wsb.fitnesstracker.mail.api.EmailSender> mailSender) {
+        this.mailSender = mailSender;
+    }
+
     @Override
-    public void sendReport(MonthlyTrainingReportDto report) {
+    public CompletableFuture<Void> sendReport(MonthlyTrainingReportDto report) {
         log.info("wysylka raportu na adres email {}: treningow w miesiacu {}-{}: {}",
                 report.getEmail(), report.getYear(), report.getMonth(), report.getTrainingCount());
+        pl.wsb.fitnesstracker.mail.api.EmailSender sender = mailSender.getIfAvailable();
+        if (sender == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return sender.send(toEmail(report));
+    }
+
+    private static EmailDto toEmail(MonthlyTrainingReportDto report) {
+        return new EmailDto(
+                report.getEmail(),
+                "Raport treningowy %d-%02d".formatted(report.getYear(), report.getMonth()),
+                "W miesiacu %d-%02d zarejestrowales %d treningow.".formatted(
+                        report.getYear(), report.getMonth(), report.getTrainingCount()));
     }
-}
\ No newline at end of file
+}
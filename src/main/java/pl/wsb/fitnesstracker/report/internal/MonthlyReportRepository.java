@@ -0,0 +1,49 @@
+package pl.wsb.fitnesstracker.report.internal;
+
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import pl.wsb.fitnesstracker.training.api.Training;
+
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+/**
+ * zapytania agregujace treningi na potrzeby raportow
+ */
+
+interface MonthlyReportRepository extends Repository<Training, Long> {
+
+    /**
+     * zlicza treningi kazdego usera z przedzialu id {@code [fromUserId, toUserId)}, rozpoczete w przedziale
+     * czasu {@code [from, to)}, jednym zapytaniem GROUP BY; userzy bez treningow w przedziale nie wystepuja w wyniku
+     * strumien musi zostac skonsumowany i zamkniety wewnatrz transakcji
+     *
+     * @param from       poczatek przedzialu czasu (wlacznie)
+     * @param to         koniec przedzialu czasu (wylacznie)
+     * @param fromUserId najmniejsze id usera (wlacznie)
+     * @param toUserId   najwieksze id usera (wylacznie)
+     * @return strumien liczby treningow per user, uporzadkowany po id usera
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new pl.wsb.fitnesstracker.report.internal.UserTrainingCount(u.id, u.email, count(t))
+            from Training t join t.user u
+            where t.startTime >= :from and t.startTime < :to
+              and u.id >= :fromUserId and u.id < :toUserId
+            group by u.id, u.email
+            order by u.id""")
+    Stream<UserTrainingCount> countTrainingsPerUser(Date from, Date to, long fromUserId, long toUserId);
+
+    /**
+     * zwraca najmniejsze i najwieksze id usera, na ich podstawie wyznaczane sa partycje raportu
+     *
+     * @return zakres id userow, z pustymi granicami jesli nie ma zadnego usera
+     */
+    @Query("select new pl.wsb.fitnesstracker.report.internal.UserIdRange(min(u.id), max(u.id)) from User u")
+    UserIdRange findUserIdRange();
+
+}
@@ -0,0 +1,31 @@
+package pl.wsb.fitnesstracker.report.internal;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ReportProperties.class)
+class ReportConfig {
+
+    /**
+     * watki przetwarzajace partycje raportu - wirtualne, jesli wlaczono spring.threads.virtual.enabled (Java 21+);
+     * liczbe rownoleglych partycji nadal ogranicza report.parallelism, bo kazda trzyma polaczenie z baza
+     */
+    @Bean
+    ThreadFactory reportPartitionThreadFactory(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("report-partition-").getVirtualThreadFactory();
+        }
+        return new CustomizableThreadFactory("report-partition-");
+    }
+
+}
@@ -0,0 +1,126 @@
+package pl.wsb.fitnesstracker.report.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.report.api.MonthlyTrainingReportDto;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * planowanie i przetwarzanie partycji raportu miesiecznego
+ * kazda metoda dziala we wlasnej transakcji, wiec postep partycji jest zapisywany zaraz po jej zakonczeniu
+ */
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class ReportPartitionService {
+
+    private final MonthlyReportRepository monthlyReportRepository;
+    private final ReportRunRepository reportRunRepository;
+    private final ReportProperties reportProperties;
+    private final EmailSender emailSender;
+
+    /**
+     * dzieli userow na partycje po zakresach id i zapisuje brakujace partycje w tabeli report_run
+     * granice partycji sa wielokrotnoscia {@code partitionSize}, wiec przy ponownym uruchomieniu sa takie same
+     *
+     * @param month raportowany miesiac
+     * @return wszystkie partycje raportu za ten miesiac, razem z juz zakonczonymi
+     */
+    @Transactional
+    public List<ReportRunPartition> plan(YearMonth month) {
+        Map<Long, ReportRunPartition> partitions = reportRunRepository
+                .findAllByYearAndMonthOrderByRangeStart(month.getYear(), month.getMonthValue())
+                .stream()
+                .collect(Collectors.toMap(ReportRunPartition::getRangeStart, Function.identity()));
+
+        long size = reportProperties.getPartitionSize();
+        List<ReportRunPartition> created = new ArrayList<>();
+        UserIdRange range = monthlyReportRepository.findUserIdRange();
+        if (!range.isEmpty()) {
+            for (long start = Math.floorDiv(range.minId(), size) * size; start <= range.maxId(); start += size) {
+                if (!partitions.containsKey(start)) {
+                    created.add(new ReportRunPartition(month.getYear(), month.getMonthValue(), start, start + size));
+                }
+            }
+        }
+        reportRunRepository.saveAll(created).forEach(partition -> partitions.put(partition.getRangeStart(), partition));
+
+        return partitions.values().stream()
+                .sorted((first, second) -> Long.compare(first.getRangeStart(), second.getRangeStart()))
+                .toList();
+    }
+
+    /**
+     * wysyla raporty userom z partycji, nie czekajac na ich dostarczenie
+     * transakcja obejmuje tylko odczyt liczby treningow, wiec nie trzyma polaczenia do bazy podczas wysylki
+     *
+     * @param partitionId id partycji z tabeli report_run
+     * @return potwierdzenia wysylki kolejnych raportow, pusta lista jesli partycja jest juz zakonczona
+     */
+    @Transactional(readOnly = true)
+    public List<CompletableFuture<Void>> sendReports(Long partitionId) {
+        ReportRunPartition partition = findPartition(partitionId);
+        if (partition.isDone()) {
+            return List.of();
+        }
+
+        YearMonth month = YearMonth.of(partition.getYear(), partition.getMonth());
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+        try (Stream<UserTrainingCount> counts = monthlyReportRepository.countTrainingsPerUser(
+                startOf(month), startOf(month.plusMonths(1)), partition.getRangeStart(), partition.getRangeEnd())) {
+            Iterator<UserTrainingCount> iterator = counts.iterator();
+            while (iterator.hasNext()) {
+                UserTrainingCount count = iterator.next();
+                deliveries.add(emailSender.sendReport(new MonthlyTrainingReportDto(
+                        count.userId(),
+                        count.email(),
+                        month.getYear(),
+                        month.getMonthValue(),
+                        Math.toIntExact(count.trainingCount()))));
+            }
+        }
+        return deliveries;
+    }
+
+    /**
+     * oznacza partycje jako zakonczona, wywolywane dopiero po potwierdzeniu dostarczenia wszystkich jej raportow,
+     * wiec partycja z niedostarczonym raportem zostanie wyslana ponownie przez wznowiony przebieg
+     *
+     * @param partitionId id partycji z tabeli report_run
+     * @param reportsSent liczba wyslanych raportow
+     */
+    @Transactional
+    public void complete(Long partitionId, int reportsSent) {
+        ReportRunPartition partition = findPartition(partitionId);
+        if (partition.isDone()) {
+            return;
+        }
+        partition.complete(reportsSent);
+        log.info("Report partition [{}, {}) for {} completed, {} reports sent", partition.getRangeStart(),
+                partition.getRangeEnd(), YearMonth.of(partition.getYear(), partition.getMonth()), reportsSent);
+    }
+
+    private ReportRunPartition findPartition(Long partitionId) {
+        return reportRunRepository.findById(partitionId)
+                .orElseThrow(() -> new IllegalStateException("Report partition %s was not found".formatted(partitionId)));
+    }
+
+    private static Date startOf(YearMonth month) {
+        return Date.from(month.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+}
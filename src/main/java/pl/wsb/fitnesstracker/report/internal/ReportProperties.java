@@ -0,0 +1,39 @@
+package pl.wsb.fitnesstracker.report.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * konfiguracja generowania miesiecznych raportow
+ */
+
+@ConfigurationProperties(prefix = "report")
+@Getter
+class ReportProperties {
+
+    /**
+     * liczba partycji przetwarzanych rownolegle
+     */
+    private final int parallelism;
+
+    /**
+     * szerokosc partycji, liczba kolejnych id userow obslugiwanych przez jedna partycje
+     */
+    private final long partitionSize;
+
+    /**
+     * maksymalny czas oczekiwania na dostarczenie raportow partycji, po nim partycja jest uznawana za nieudana
+     */
+    private final Duration deliveryTimeout;
+
+    ReportProperties(@DefaultValue("4") int parallelism, @DefaultValue("1000") long partitionSize,
+                     @DefaultValue("10m") Duration deliveryTimeout) {
+        this.parallelism = parallelism;
+        this.partitionSize = partitionSize;
+        this.deliveryTimeout = deliveryTimeout;
+    }
+
+}
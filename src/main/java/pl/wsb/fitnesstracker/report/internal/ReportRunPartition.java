@@ -0,0 +1,80 @@
+package pl.wsb.fitnesstracker.report.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * postep przebiegu raportu miesiecznego dla jednej partycji userow {@code [rangeStart, rangeEnd)}
+ * partycje ze statusem DONE sa pomijane przy ponownym uruchomieniu raportu za ten sam miesiac
+ */
+
+@Entity
+@Table(name = "report_run",
+        uniqueConstraints = @UniqueConstraint(name = "uk_report_run_partition",
+                columnNames = {"report_year", "report_month", "range_start"}))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+class ReportRunPartition {
+
+    enum Status {
+        PENDING,
+        DONE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "report_year", nullable = false)
+    private int year;
+
+    @Column(name = "report_month", nullable = false)
+    private int month;
+
+    @Column(name = "range_start", nullable = false)
+    private long rangeStart;
+
+    @Column(name = "range_end", nullable = false)
+    private long rangeEnd;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "reports_sent", nullable = false)
+    private int reportsSent;
+
+    @Nullable
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    ReportRunPartition(int year, int month, long rangeStart, long rangeEnd) {
+        this.year = year;
+        this.month = month;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.status = Status.PENDING;
+    }
+
+    boolean isDone() {
+        return status == Status.DONE;
+    }
+
+    /**
+     * oznacza partycje jako zakonczona
+     * @param reportsSent liczba wyslanych raportow
+     */
+    void complete(int reportsSent) {
+        this.status = Status.DONE;
+        this.reportsSent = reportsSent;
+        this.completedAt = Instant.now();
+    }
+
+}
@@ -0,0 +1,11 @@
+package pl.wsb.fitnesstracker.report.internal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+interface ReportRunRepository extends JpaRepository<ReportRunPartition, Long> {
+
+    List<ReportRunPartition> findAllByYearAndMonthOrderByRangeStart(int year, int month);
+
+}
@@ -1,53 +1,113 @@
 package pl.wsb.fitnesstracker.report.internal;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import pl.wsb.fitnesstracker.report.api.MonthlyTrainingReportDto;
 import pl.wsb.fitnesstracker.report.api.ReportService;
-import pl.wsb.fitnesstracker.training.api.TrainingService;
-import pl.wsb.fitnesstracker.user.api.User;
-import pl.wsb.fitnesstracker.user.api.UserService;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.Date;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  *implementacja RaportService
  * generowanie, agregowanie i wysylka raportow
+ * userzy sa dzieleni na partycje po zakresach id, przetwarzane rownolegle na ograniczonej puli watkow
+ * (wirtualnych, jesli sa wlaczone - patrz ReportConfig);
+ * postep kazdej partycji jest zapisywany w tabeli report_run, wiec ponowne uruchomienie po awarii
+ * pomija partycje, dla ktorych raporty zostaly juz wyslane
+ * partycja jest oznaczana jako zakonczona dopiero po dostarczeniu wszystkich jej raportow; na dostarczenie
+ * czekamy poza transakcja i najwyzej {@link ReportProperties#getDeliveryTimeout()}
  */
 
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class ReportServiceImpl implements ReportService {
 
-    private final TrainingService trainingService;
-    private final UserService userService;
-    private final EmailSender emailSender;
+    private final ReportPartitionService partitionService;
+    private final ReportProperties reportProperties;
+    private final Counter completedPartitions;
+    private final Counter failedPartitions;
+    private final Timer partitionTimer;
+    private final ThreadFactory partitionThreadFactory;
+
+    ReportServiceImpl(ReportPartitionService partitionService, ReportProperties reportProperties, MeterRegistry meterRegistry,
+                      @Qualifier("reportPartitionThreadFactory") ThreadFactory partitionThreadFactory) {
+        this.partitionService = partitionService;
+        this.reportProperties = reportProperties;
+        this.partitionThreadFactory = partitionThreadFactory;
+        this.completedPartitions = Counter.builder("report.partitions")
+                .tag("outcome", "completed")
+                .description("Number of processed monthly report partitions")
+                .register(meterRegistry);
+        this.failedPartitions = Counter.builder("report.partitions")
+                .tag("outcome", "failed")
+                .description("Number of processed monthly report partitions")
+                .register(meterRegistry);
+        this.partitionTimer = Timer.builder("report.partition.duration")
+                .description("Time of processing a single monthly report partition")
+                .register(meterRegistry);
+    }
 
     @Override
     public void generateAndSendMonthlyReports(int year, int month) {
-        List<User> allUsers = userService.findAllUsers();
-        for (User user : allUsers) {
-            int count = (int) trainingService.findTrainingsByUser(user.getId())
-                    .stream()
-                    .filter(t -> {
-                        Date start = t.getStartTime();
-                        if (start == null) return false;
-                        LocalDateTime ldt = start.toInstant()
-                                .atZone(ZoneId.systemDefault())
-                                .toLocalDateTime();
-                        return ldt.getYear() == year && ldt.getMonthValue() == month;
-                    })
-                    .count();
-
-            MonthlyTrainingReportDto report = new MonthlyTrainingReportDto(
-                    user.getId(),
-                    user.getEmail(),
-                    year,
-                    month,
-                    count
-            );
-            emailSender.sendReport(report);
+        YearMonth reportMonth = YearMonth.of(year, month);
+        List<ReportRunPartition> pending = partitionService.plan(reportMonth).stream()
+                .filter(partition -> !partition.isDone())
+                .toList();
+        log.info("Generating monthly reports for {}: {} partitions to process", reportMonth, pending.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(reportProperties.getParallelism(), partitionThreadFactory);
+        try {
+            List<CompletableFuture<Void>> futures = pending.stream()
+                    .map(partition -> CompletableFuture.runAsync(() -> processPartition(partition), executor))
+                    .toList();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Monthly report for %s did not complete, it can be resumed by running it again"
+                    .formatted(reportMonth), e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void processPartition(ReportRunPartition partition) {
+        try {
+            partitionTimer.record(() -> {
+                List<CompletableFuture<Void>> deliveries = partitionService.sendReports(partition.getId());
+                awaitDelivery(partition, deliveries);
+                partitionService.complete(partition.getId(), deliveries.size());
+            });
+            completedPartitions.increment();
+        } catch (RuntimeException e) {
+            failedPartitions.increment();
+            log.error("Report partition [{}, {}) failed", partition.getRangeStart(), partition.getRangeEnd(), e);
+            throw e;
+        }
+    }
+
+    private void awaitDelivery(ReportRunPartition partition, List<CompletableFuture<Void>> deliveries) {
+        try {
+            CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new))
+                    .get(reportProperties.getDeliveryTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Reports of partition [%d, %d) were not delivered"
+                    .formatted(partition.getRangeStart(), partition.getRangeEnd()), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Reports of partition [%d, %d) were not delivered within %s"
+                    .formatted(partition.getRangeStart(), partition.getRangeEnd(), reportProperties.getDeliveryTimeout()), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for reports of partition [%d, %d)"
+                    .formatted(partition.getRangeStart(), partition.getRangeEnd()), e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package pl.wsb.fitnesstracker.report.internal;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * zakres id userow {@code [minId, maxId]}, obie granice sa puste jesli nie ma zadnego usera
+ *
+ * @param minId najmniejsze id usera
+ * @param maxId najwieksze id usera
+ */
+
+record UserIdRange(@Nullable Long minId, @Nullable Long maxId) {
+
+    boolean isEmpty() {
+        return minId == null || maxId == null;
+    }
+}
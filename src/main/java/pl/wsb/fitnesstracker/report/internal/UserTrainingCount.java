@@ -0,0 +1,12 @@
+package pl.wsb.fitnesstracker.report.internal;
+
+/**
+ * liczba treningow usera w raportowanym okresie, wiersz wyniku zapytania agregujacego
+ *
+ * @param userId        id usera
+ * @param email         email usera
+ * @param trainingCount liczba treningow w okresie
+ */
+
+record UserTrainingCount(Long userId, String email, long trainingCount) {
+}
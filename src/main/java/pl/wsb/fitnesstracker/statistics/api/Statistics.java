@@ -4,6 +4,10 @@ import jakarta.persistence.*;
 import lombok.*;
 import pl.wsb.fitnesstracker.user.api.User;
 
+/**
+ * Training statistics of a single user, maintained incrementally whenever the user's trainings change,
+ * so reading them does not require scanning the trainings.
+ */
 @Entity
 @Table(name = "statistics")
 @Getter
@@ -17,7 +21,7 @@ public class Statistics {
     private Long id;
 
     @ManyToOne
-    @JoinColumn(name = "user_id")
+    @JoinColumn(name = "user_id", unique = true)
     private User user;
 
     @Column(name = "total_trainings", nullable = false)
@@ -29,4 +33,10 @@ public class Statistics {
     @Column(name = "total_calories_burned")
     private int totalCaloriesBurned;
 
+    public Statistics(final User user, final int totalTrainings, final double totalDistance) {
+        this.user = user;
+        this.totalTrainings = totalTrainings;
+        this.totalDistance = totalDistance;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import pl.wsb.fitnesstracker.exception.api.NotFoundException;
+
+/**
+ * Exception indicating that the {@link Statistics} of the user were not found.
+ */
+@SuppressWarnings("squid:S110")
+public class StatisticsNotFoundException extends NotFoundException {
+
+    private StatisticsNotFoundException(String message) {
+        super(message);
+    }
+
+    public StatisticsNotFoundException(Long userId) {
+        this("Statistics of user with ID=%s were not found".formatted(userId));
+    }
+
+}
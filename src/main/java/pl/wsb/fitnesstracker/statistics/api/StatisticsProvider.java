@@ -13,4 +13,13 @@ public interface StatisticsProvider {
      */
     Optional<Statistics> getStatistics(Long statisticsId);
 
+    /**
+     * Retrieves the statistics of the user with given ID.
+     * If the user has no trainings recorded yet, then {@link Optional#empty()} will be returned.
+     *
+     * @param userId id of the user whose statistics are searched
+     * @return An {@link Optional} containing the user's Statistics, or {@link Optional#empty()} if not found
+     */
+    Optional<Statistics> getStatisticsForUser(Long userId);
+
 }
@@ -0,0 +1,22 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import pl.wsb.fitnesstracker.user.api.User;
+
+/**
+ * Interface (API) for modifying operations on {@link Statistics} entities through the API.
+ * Statistics are changed only as a part of the transaction changing the trainings, so implementing classes require
+ * an existing transaction.
+ */
+public interface StatisticsService extends StatisticsProvider {
+
+    /**
+     * Applies the change of the user's trainings to the user's statistics, creating them if the user has none yet.
+     * Only the difference is applied, the statistics are not recomputed.
+     *
+     * @param user           user whose trainings changed
+     * @param trainingsDelta change of the number of trainings
+     * @param distanceDelta  change of the total distance
+     */
+    void applyTrainingDelta(User user, int trainingsDelta, double distanceDelta);
+
+}
@@ -0,0 +1,12 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(StatisticsProperties.class)
+class StatisticsConfig {
+
+}
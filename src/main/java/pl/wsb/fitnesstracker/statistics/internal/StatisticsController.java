@@ -0,0 +1,32 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsNotFoundException;
+
+@RestController
+@RequestMapping("/v1/statistics")
+@RequiredArgsConstructor
+class StatisticsController {
+
+    private final StatisticsServiceImpl statisticsService;
+
+    /**
+     * Retrieves the summary of the user's trainings, read from the incrementally maintained statistics.
+     *
+     * @param userId id of the user
+     * @return summary of the user's trainings
+     * @throws StatisticsNotFoundException if the user has no trainings recorded
+     */
+    @GetMapping("/user/{userId}")
+    public StatisticsDto getUserStatistics(@PathVariable Long userId) {
+        return statisticsService.getStatisticsForUser(userId)
+                .map(statistics -> new StatisticsDto(userId, statistics.getTotalTrainings(),
+                        statistics.getTotalDistance(), statistics.getTotalCaloriesBurned()))
+                .orElseThrow(() -> new StatisticsNotFoundException(userId));
+    }
+
+}
@@ -0,0 +1,8 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+/**
+ * Summary of the user's trainings.
+ */
+record StatisticsDto(Long userId, int totalTrainings, double totalDistance, int totalCaloriesBurned) {
+
+}
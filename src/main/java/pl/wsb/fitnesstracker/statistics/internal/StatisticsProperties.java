@@ -0,0 +1,55 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the statistics write-behind and of the rebuild, checking the incrementally maintained statistics
+ * against the trainings.
+ */
+@ConfigurationProperties(prefix = "statistics")
+@Getter
+class StatisticsProperties {
+
+    /**
+     * Cron expression of the scheduled rebuild, {@code -} disables it.
+     */
+    private final String rebuildCron;
+
+    /**
+     * Number of user partitions rebuilt in parallel.
+     */
+    private final int rebuildParallelism;
+
+    /**
+     * Number of users rebuilt in a single transaction.
+     */
+    private final int rebuildPartitionSize;
+
+    /**
+     * Interval between the flushes of the pending statistics deltas to the database.
+     * Used by {@code @Scheduled} as well, so it has to be in the ISO-8601 format.
+     */
+    private final Duration flushInterval;
+
+    /**
+     * Maximal number of pending statistics deltas, exceeding it flushes them immediately.
+     */
+    private final int maxPendingDeltas;
+
+    StatisticsProperties(@DefaultValue("-") String rebuildCron,
+                         @DefaultValue("4") int rebuildParallelism,
+                         @DefaultValue("1000") int rebuildPartitionSize,
+                         @DefaultValue("PT1S") Duration flushInterval,
+                         @DefaultValue("10000") int maxPendingDeltas) {
+        this.rebuildCron = rebuildCron;
+        this.rebuildParallelism = rebuildParallelism;
+        this.rebuildPartitionSize = rebuildPartitionSize;
+        this.flushInterval = flushInterval;
+        this.maxPendingDeltas = maxPendingDeltas;
+    }
+
+}
@@ -0,0 +1,77 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Checks the incrementally maintained statistics against the full scan of the trainings and corrects the differences.
+ * Users are split into partitions of {@link StatisticsProperties#getRebuildPartitionSize()} consecutive ids,
+ * rebuilt in parallel, each in its own transaction, during which the pending deltas are not flushed.
+ */
+@Component
+@Slf4j
+class StatisticsRebuildJob {
+
+    private final StatisticsServiceImpl statisticsService;
+    private final StatisticsRepository statisticsRepository;
+    private final StatisticsWriteBehind writeBehind;
+    private final StatisticsProperties properties;
+    private final Counter corrections;
+
+    StatisticsRebuildJob(StatisticsServiceImpl statisticsService, StatisticsRepository statisticsRepository,
+                         StatisticsWriteBehind writeBehind, StatisticsProperties properties, MeterRegistry meterRegistry) {
+        this.statisticsService = statisticsService;
+        this.statisticsRepository = statisticsRepository;
+        this.writeBehind = writeBehind;
+        this.properties = properties;
+        this.corrections = Counter.builder("statistics.rebuild.corrections")
+                .description("Number of user statistics corrected by the rebuild")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuilds the statistics of all users.
+     *
+     * @return number of corrected statistics
+     * @throws IllegalStateException if rebuild of any partition failed
+     */
+    @Scheduled(cron = "${statistics.rebuild-cron:-}")
+    public int rebuild() {
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getRebuildParallelism(),
+                new CustomizableThreadFactory("statistics-rebuild-"));
+        try {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            long afterId = Long.MIN_VALUE;
+            List<Long> userIds;
+            while (!(userIds = statisticsRepository.findUserIdsAfter(afterId, Limit.of(properties.getRebuildPartitionSize()))).isEmpty()) {
+                List<Long> partition = userIds;
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> writeBehind.withoutFlush(() -> statisticsService.rebuild(partition)), executor));
+                afterId = userIds.get(userIds.size() - 1);
+            }
+            int corrected = futures.stream()
+                    .mapToInt(CompletableFuture::join)
+                    .sum();
+            corrections.increment(corrected);
+            log.info("Statistics rebuild of {} partitions finished, {} statistics corrected", futures.size(), corrected);
+            return corrected;
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Statistics rebuild did not complete", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
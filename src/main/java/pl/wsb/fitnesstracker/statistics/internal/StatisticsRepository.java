@@ -0,0 +1,36 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+interface StatisticsRepository extends JpaRepository<Statistics, Long> {
+
+    Optional<Statistics> findByUserId(Long userId);
+
+    /**
+     * Loads the statistics of the users, locking them until the end of the transaction,
+     * so the flush of the concurrent deltas waits for the rebuild of the statistics.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Statistics> findAllByUserIdIn(Collection<Long> userIds);
+
+    @Query("select u.id from User u where u.id > :afterId order by u.id")
+    List<Long> findUserIdsAfter(long afterId, Limit limit);
+
+    @Query("""
+            select new pl.wsb.fitnesstracker.statistics.internal.UserTrainingTotals(t.user.id, count(t), coalesce(sum(t.distance), 0.0))
+            from Training t
+            where t.user.id in :userIds
+            group by t.user.id
+            """)
+    List<UserTrainingTotals> sumTrainingsPerUser(Collection<Long> userIds);
+
+}
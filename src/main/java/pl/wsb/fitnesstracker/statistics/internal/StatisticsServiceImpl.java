@@ -0,0 +1,136 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsService;
+import pl.wsb.fitnesstracker.statistics.internal.StatisticsWriteBehind.PendingDelta;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Statistics are updated write-behind: deltas of the committed trainings are buffered in memory and flushed
+ * periodically (see {@link StatisticsWriteBehind}), reads merge the persisted statistics with the pending deltas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+class StatisticsServiceImpl implements StatisticsService {
+
+    private final StatisticsRepository statisticsRepository;
+    private final UserProvider userProvider;
+    private final StatisticsWriteBehind writeBehind;
+
+    @Override
+    public Optional<Statistics> getStatistics(Long statisticsId) {
+        return writeBehind.withoutFlush(() -> statisticsRepository.findById(statisticsId)
+                .map(statistics -> withPending(statistics, writeBehind.pending(statistics.getUser().getId()))));
+    }
+
+    @Override
+    public Optional<Statistics> getStatisticsForUser(Long userId) {
+        return writeBehind.withoutFlush(() -> {
+            PendingDelta pending = writeBehind.pending(userId);
+            Optional<Statistics> persisted = statisticsRepository.findByUserId(userId);
+            if (persisted.isPresent() || pending.equals(PendingDelta.NONE)) {
+                return persisted.map(statistics -> withPending(statistics, pending));
+            }
+            return userProvider.getUser(userId)
+                    .map(user -> new Statistics(user, pending.trainings(), pending.distance()));
+        });
+    }
+
+    /**
+     * The delta is buffered only after the commit of the current transaction, so the rolled back changes
+     * never reach the statistics (see {@link StatisticsWriteBehind#addOnCommit}).
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyTrainingDelta(User user, int trainingsDelta, double distanceDelta) {
+        if (trainingsDelta == 0 && distanceDelta == 0) {
+            return;
+        }
+        writeBehind.addOnCommit(user.getId(), trainingsDelta, distanceDelta);
+    }
+
+    /**
+     * Compares the statistics of the users with the totals computed by the full scan of their trainings
+     * and corrects the ones that differ. Has to be called within {@link StatisticsWriteBehind#withoutFlush},
+     * as the pending deltas are already included in the scanned totals and are subtracted from them.
+     *
+     * @param userIds ids of the users whose statistics are rebuilt
+     * @return number of corrected (or created) statistics
+     */
+    @Transactional
+    public int rebuild(List<Long> userIds) {
+        Map<Long, Statistics> stored = statisticsRepository.findAllByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(statistics -> statistics.getUser().getId(), Function.identity()));
+        // no training commits during the scan and the reads of the pending deltas, so each training is either scanned
+        // with its delta already pending or flushed, or commits later and its delta is applied on top of the rebuilt values
+        List<UserTrainingTotals> rebuilt = writeBehind.withoutCommits(() -> {
+            Map<Long, UserTrainingTotals> scanned = statisticsRepository.sumTrainingsPerUser(userIds).stream()
+                    .collect(Collectors.toMap(UserTrainingTotals::userId, Function.identity()));
+            return userIds.stream()
+                    .map(userId -> {
+                        PendingDelta pending = writeBehind.pending(userId);
+                        UserTrainingTotals scannedTotals = scanned.getOrDefault(userId, new UserTrainingTotals(userId, 0, 0));
+                        return new UserTrainingTotals(userId, scannedTotals.trainingCount() - pending.trainings(),
+                                scannedTotals.totalDistance() - pending.distance());
+                    })
+                    .toList();
+        });
+
+        int corrected = 0;
+        List<UserTrainingTotals> missing = new ArrayList<>();
+        for (UserTrainingTotals totals : rebuilt) {
+            Long userId = totals.userId();
+            Statistics statistics = stored.get(userId);
+            if (statistics == null) {
+                if (totals.trainingCount() > 0) {
+                    missing.add(totals);
+                }
+            } else if (!totals.matches(statistics)) {
+                log.warn("Statistics of user {} differ from trainings: {} trainings and {} distance instead of {} and {}",
+                        userId, statistics.getTotalTrainings(), statistics.getTotalDistance(), totals.trainingCount(), totals.totalDistance());
+                statistics.setTotalTrainings(Math.toIntExact(totals.trainingCount()));
+                statistics.setTotalDistance(totals.totalDistance());
+                corrected++;
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, User> users = userProvider.getUsers(missing.stream().map(UserTrainingTotals::userId).toList()).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            for (UserTrainingTotals totals : missing) {
+                log.warn("Statistics of user {} are missing, creating them from trainings", totals.userId());
+                statisticsRepository.save(new Statistics(users.get(totals.userId()), Math.toIntExact(totals.trainingCount()), totals.totalDistance()));
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+
+    /**
+     * Returns the copy of the persisted statistics with the pending delta applied, the managed entity stays unchanged.
+     */
+    private static Statistics withPending(Statistics persisted, PendingDelta pending) {
+        if (pending.equals(PendingDelta.NONE)) {
+            return persisted;
+        }
+        Statistics merged = new Statistics(persisted.getUser(), persisted.getTotalTrainings() + pending.trainings(),
+                persisted.getTotalDistance() + pending.distance());
+        merged.setId(persisted.getId());
+        merged.setTotalCaloriesBurned(persisted.getTotalCaloriesBurned());
+        return merged;
+    }
+
+}
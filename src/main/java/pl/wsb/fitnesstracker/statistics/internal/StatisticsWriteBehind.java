@@ -0,0 +1,261 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind buffer of the statistics deltas.
+ * <p>
+ * Committed deltas are accumulated in memory in striped {@link LongAdder}/{@link DoubleAdder} cells per user,
+ * so the concurrent trainings of the same user do not contend on a single database row. The deltas are flushed
+ * every {@link StatisticsProperties#getFlushInterval()} with batched UPDATEs, or earlier by the committing thread
+ * when more than {@link StatisticsProperties#getMaxPendingDeltas()} deltas are pending.
+ * <p>
+ * The flush swaps the buffer for an empty one and waits until the writers that still hold the old buffer finish,
+ * so no delta is lost or applied twice. Readers merging the persisted statistics with the pending deltas hold
+ * the read lock, which excludes the flush, so they never see a delta both in the database and in the buffer.
+ * The transactions hold the commit lock from just before their commit until their delta is buffered, so the statistics
+ * rebuild holding it exclusively never scans a committed training whose delta is not pending yet.
+ * Pending deltas are lost if the application stops abruptly; the statistics rebuild restores them from the trainings.
+ */
+@Component
+@Slf4j
+class StatisticsWriteBehind {
+
+    private static final String UPDATE_SQL = """
+            update statistics
+            set total_trainings = total_trainings + ?, total_distance = total_distance + ?
+            where user_id = ?
+            """;
+
+    /**
+     * Inserts the statistics only if the user still exists, deltas of deleted users are dropped.
+     */
+    private static final String INSERT_SQL = """
+            insert into statistics (user_id, total_trainings, total_distance, total_calories_burned)
+            select id, ?, ?, 0 from users where id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StatisticsProperties properties;
+    private final AtomicReference<DeltaBuffer> buffer = new AtomicReference<>(new DeltaBuffer());
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+    private final Counter flushedUsers;
+
+    StatisticsWriteBehind(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          StatisticsProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // the flush may be triggered after commit of the training transaction, while its resources are still bound
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+        this.flushedUsers = Counter.builder("statistics.flushed.users")
+                .description("Number of user statistics updated by the write-behind flush")
+                .register(meterRegistry);
+        Gauge.builder("statistics.pending.deltas", buffer, current -> current.get().pending.sum())
+                .description("Number of statistics deltas waiting to be flushed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds the committed delta of the user's statistics to the buffer.
+     */
+    void add(Long userId, int trainingsDelta, double distanceDelta) {
+        long pending = addToCurrentBuffer(userId, trainingsDelta, distanceDelta);
+        if (pending > properties.getMaxPendingDeltas()) {
+            flush();
+        }
+    }
+
+    /**
+     * Adds the delta of the user's statistics to the buffer when the current transaction commits,
+     * the rolled back changes never reach the statistics.
+     */
+    void addOnCommit(Long userId, int trainingsDelta, double distanceDelta) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private boolean locked;
+            private long pending;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitLock.readLock().lock();
+                locked = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                pending = addToCurrentBuffer(userId, trainingsDelta, distanceDelta);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (locked) {
+                    commitLock.readLock().unlock();
+                }
+                // the rebuild waiting for the commit lock holds off the flush, so it may be flushed only after the unlock
+                if (pending > properties.getMaxPendingDeltas()) {
+                    flush();
+                }
+            }
+
+        });
+    }
+
+    /**
+     * Runs the supplier with no transaction between its commit and the buffering of its delta, so every committed
+     * training is either visible to the supplier with its delta pending (or already flushed), or commits after it.
+     */
+    <T> T withoutCommits(Supplier<T> supplier) {
+        commitLock.writeLock().lock();
+        try {
+            return supplier.get();
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the supplier with no flush in progress, so the database and the pending deltas are consistent with each other.
+     */
+    <T> T withoutFlush(Supplier<T> supplier) {
+        flushLock.readLock().lock();
+        try {
+            return supplier.get();
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the pending delta of the user's statistics, to be called within {@link #withoutFlush(Supplier)}.
+     */
+    PendingDelta pending(Long userId) {
+        DeltaCell cell = buffer.get().cells.get(userId);
+        return cell == null ? PendingDelta.NONE : new PendingDelta(cell.trainings.intValue(), cell.distance.sum());
+    }
+
+    /**
+     * Writes all pending deltas to the database.
+     */
+    @Scheduled(fixedDelayString = "${statistics.flush-interval:PT1S}")
+    public void flush() {
+        flushLock.writeLock().lock();
+        try {
+            DeltaBuffer flushed = buffer.getAndSet(new DeltaBuffer());
+            flushed.awaitWriters();
+            if (flushed.cells.isEmpty()) {
+                return;
+            }
+            try {
+                write(flushed.cells);
+                flushedUsers.increment(flushed.cells.size());
+            } catch (RuntimeException e) {
+                log.error("Flush of {} user statistics failed, deltas will be retried", flushed.cells.size(), e);
+                flushed.cells.forEach((userId, cell) -> addToCurrentBuffer(userId, cell.trainings.intValue(), cell.distance.sum()));
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        flush();
+    }
+
+    private long addToCurrentBuffer(Long userId, int trainingsDelta, double distanceDelta) {
+        while (true) {
+            DeltaBuffer current = buffer.get();
+            current.writers.increment();
+            try {
+                // the buffer swapped meanwhile may already be flushed, so the delta goes to the new one
+                if (buffer.get() != current) {
+                    continue;
+                }
+                DeltaCell cell = current.cells.computeIfAbsent(userId, id -> new DeltaCell());
+                cell.trainings.add(trainingsDelta);
+                cell.distance.add(distanceDelta);
+                current.pending.increment();
+                return current.pending.sum();
+            } finally {
+                current.writers.decrement();
+            }
+        }
+    }
+
+    private void write(Map<Long, DeltaCell> cells) {
+        List<Object[]> rows = new ArrayList<>(cells.size());
+        cells.forEach((userId, cell) -> rows.add(new Object[]{cell.trainings.intValue(), cell.distance.sum(), userId}));
+        transactionTemplate.executeWithoutResult(status -> {
+            int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+            List<Object[]> missing = new ArrayList<>();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    missing.add(rows.get(i));
+                }
+            }
+            if (!missing.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, missing);
+            }
+        });
+    }
+
+    /**
+     * Delta of the user's statistics not yet written to the database.
+     */
+    record PendingDelta(int trainings, double distance) {
+
+        static final PendingDelta NONE = new PendingDelta(0, 0);
+
+    }
+
+    private static final class DeltaCell {
+
+        private final LongAdder trainings = new LongAdder();
+        private final DoubleAdder distance = new DoubleAdder();
+
+    }
+
+    private static final class DeltaBuffer {
+
+        private final Map<Long, DeltaCell> cells = new ConcurrentHashMap<>();
+        private final LongAdder pending = new LongAdder();
+        private final LongAdder writers = new LongAdder();
+
+        /**
+         * Waits until the writers that took this buffer before it was swapped finish adding their deltas.
+         */
+        private void awaitWriters() {
+            while (writers.sum() != 0) {
+                Thread.onSpinWait();
+            }
+        }
+
+    }
+
+}
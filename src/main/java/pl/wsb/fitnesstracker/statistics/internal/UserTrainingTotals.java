@@ -0,0 +1,24 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+
+/**
+ * Totals of the user's trainings computed by the full scan of the trainings.
+ *
+ * @param userId        id of the user
+ * @param trainingCount number of the user's trainings
+ * @param totalDistance sum of the distances of the user's trainings
+ */
+record UserTrainingTotals(Long userId, long trainingCount, double totalDistance) {
+
+    /**
+     * Tolerance of the distance comparison, as the sums of the same distances may differ with the order of additions.
+     */
+    private static final double DISTANCE_TOLERANCE = 1e-6;
+
+    boolean matches(Statistics statistics) {
+        return statistics.getTotalTrainings() == trainingCount
+                && Math.abs(statistics.getTotalDistance() - totalDistance) <= DISTANCE_TOLERANCE;
+    }
+
+}
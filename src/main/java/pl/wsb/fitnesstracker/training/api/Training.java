@@ -5,6 +5,8 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import pl.wsb.fitnesstracker.training.internal.ActivityType;
 import pl.wsb.fitnesstracker.user.api.User;
 
@@ -18,18 +20,31 @@ import java.util.Date;
 
 
 @Entity
-@Table(name = "trainings")
+@Table(name = "trainings", indexes = {
+        @Index(name = "ix_trainings_user_id_start_time", columnList = "user_id, start_time, id"),
+        @Index(name = "ix_trainings_start_time", columnList = "start_time, id"),
+        @Index(name = "ix_trainings_end_time", columnList = "end_time"),
+        @Index(name = "ix_trainings_activity_type_start_time", columnList = "activity_type, start_time")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "trainings")
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString
 public class Training {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trainings_seq")
+    @SequenceGenerator(name = "trainings_seq", sequenceName = "trainings_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    /**
+     * Użytkownik ładowany leniwie - odczyty list korzystają z projekcji z samym {@code userId},
+     * a miejsca potrzebujące użytkownika pobierają go jawnie grafem encji.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @ToString.Exclude
     private User user;
 
     @Column(name = "start_time", nullable = false)
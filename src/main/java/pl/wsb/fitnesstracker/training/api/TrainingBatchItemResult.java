@@ -0,0 +1,28 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * Wynik zapisu pojedynczego treningu przesłanego w ramach zapisu wsadowego.
+ *
+ * @param index      pozycja treningu w przesłanej liście
+ * @param status     status zapisu treningu
+ * @param trainingId identyfikator zapisanego treningu lub {@code null}, jeśli trening został odrzucony
+ * @param error      przyczyna odrzucenia treningu lub {@code null}, jeśli trening został zapisany
+ */
+public record TrainingBatchItemResult(int index, Status status, @Nullable Long trainingId, @Nullable String error) {
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    public static TrainingBatchItemResult created(int index, Long trainingId) {
+        return new TrainingBatchItemResult(index, Status.CREATED, trainingId, null);
+    }
+
+    public static TrainingBatchItemResult rejected(int index, String error) {
+        return new TrainingBatchItemResult(index, Status.REJECTED, null, error);
+    }
+
+}
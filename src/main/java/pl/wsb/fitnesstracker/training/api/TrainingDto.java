@@ -1,6 +1,8 @@
 package pl.wsb.fitnesstracker.training.api;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import pl.wsb.fitnesstracker.training.internal.ActivityType;
 
 import java.util.Date;
@@ -12,6 +14,8 @@ import java.util.Date;
 
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class TrainingDto {
     private Long id;
     private Long userId;
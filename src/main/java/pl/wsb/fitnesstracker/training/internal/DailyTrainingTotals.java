@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import java.time.LocalDate;
+
+/**
+ * Suma dziennych podsumowań użytkownika ze wszystkich typów aktywności.
+ *
+ * @param day          dzień
+ * @param sessions     liczba treningów
+ * @param distance     łączny dystans
+ * @param durationSecs łączny czas treningów w sekundach
+ */
+record DailyTrainingTotals(LocalDate day, long sessions, double distance, long durationSecs) {
+
+}
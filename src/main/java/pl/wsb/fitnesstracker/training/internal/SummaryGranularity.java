@@ -0,0 +1,61 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * Okres, na jaki dzielone jest podsumowanie treningów.
+ */
+
+enum SummaryGranularity {
+
+    DAY {
+        @Override
+        LocalDate periodStart(LocalDate day) {
+            return day;
+        }
+    },
+    /**
+     * Tydzień ISO, zaczynający się w poniedziałek.
+     */
+    WEEK {
+        @Override
+        LocalDate periodStart(LocalDate day) {
+            return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+    },
+    MONTH {
+        @Override
+        LocalDate periodStart(LocalDate day) {
+            return day.withDayOfMonth(1);
+        }
+    };
+
+    /**
+     * Zwraca pierwszy dzień okresu, do którego należy podany dzień.
+     *
+     * @param day dzień
+     * @return pierwszy dzień okresu
+     */
+    abstract LocalDate periodStart(LocalDate day);
+
+    /**
+     * Zamienia wartość parametru żądania ({@code day}, {@code week} lub {@code month}) na okres.
+     *
+     * @param value wartość parametru, bez względu na wielkość liter
+     * @return okres podsumowania
+     * @throws BusinessException jeśli wartość nie oznacza żadnego okresu
+     */
+    static SummaryGranularity parse(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Granularity must be one of day, week, month");
+        }
+    }
+
+}
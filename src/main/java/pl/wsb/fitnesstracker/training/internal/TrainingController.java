@@ -1,12 +1,22 @@
 package pl.wsb.fitnesstracker.training.internal;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import pl.wsb.fitnesstracker.training.api.Training;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.wsb.fitnesstracker.pagination.api.CursorPage;
+import pl.wsb.fitnesstracker.training.api.TrainingBatchItemResult;
 import pl.wsb.fitnesstracker.training.api.TrainingDto;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
@@ -22,29 +32,75 @@ import java.util.List;
 @RequestMapping("/v1/trainings")
 public class TrainingController {
     private final TrainingServiceImpl trainingService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public TrainingController(TrainingServiceImpl trainingService) {
+    public TrainingController(TrainingServiceImpl trainingService, ObjectMapper objectMapper) {
         this.trainingService = trainingService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Pobiera wszystkie treningi z systemu.
-     * @return lista wszystkich treningów
+     * Pobiera stronę treningów z systemu, uporządkowanych po czasie rozpoczęcia.
+     * @param cursor token kolejnej strony z poprzedniej odpowiedzi (pominięty dla pierwszej strony)
+     * @param limit maksymalna liczba treningów na stronie
+     * @return strona treningów wraz z tokenem kolejnej strony
      */
     @GetMapping
-    public List<Training> getAll() {
-        return trainingService.getAll();
+    public CursorPage<TrainingDto> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return trainingService.getPage(cursor, limit);
     }
 
     /**
-     * Pobiera wszystkie treningi konkretnego użytkownika.
+     * Pobiera stronę treningów konkretnego użytkownika, uporządkowanych po czasie rozpoczęcia.
      * @param userId identyfikator użytkownika
-     * @return lista treningów użytkownika
+     * @param cursor token kolejnej strony z poprzedniej odpowiedzi (pominięty dla pierwszej strony)
+     * @param limit maksymalna liczba treningów na stronie
+     * @return strona treningów użytkownika wraz z tokenem kolejnej strony
      */
     @GetMapping("/{userId}")
-    public List<Training> getByUser(@PathVariable Long userId) {
-        return trainingService.getByUser(userId);
+    public CursorPage<TrainingDto> getByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return trainingService.getPageByUser(userId, cursor, limit);
+    }
+
+    /**
+     * Podsumowuje treningi użytkownika (liczbę, dystans i czas) w kolejnych okresach zakresu dat.
+     * @param userId identyfikator użytkownika
+     * @param from pierwszy dzień zakresu w formacie yyyy-MM-dd (włącznie)
+     * @param to ostatni dzień zakresu w formacie yyyy-MM-dd (włącznie)
+     * @param granularity okres podsumowania: day, week lub month
+     * @return podsumowania okresów z treningami, uporządkowane po dacie
+     */
+    @GetMapping("/{userId}/summary")
+    public List<TrainingSummaryDto> getSummary(
+            @PathVariable Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity) {
+        return trainingService.getSummary(userId, from, to, SummaryGranularity.parse(granularity));
+    }
+
+    /**
+     * Eksportuje wszystkie treningi w formacie NDJSON (jeden trening w postaci JSON na linię).
+     * Odpowiedź jest zapisywana strumieniowo, wprost z kursora bazy danych, więc zużycie pamięci nie zależy od liczby treningów.
+     * @return strumień treningów w formacie NDJSON
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        ObjectWriter writer = objectMapper.writerFor(TrainingDto.class);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            trainingService.exportAll(dto -> writeLine(writer, out, dto));
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
@@ -53,7 +109,7 @@ public class TrainingController {
      * @return lista treningów po danej dacie
      */
     @GetMapping("/finished/{afterTime}")
-    public List<Training> getAfterDate(
+    public List<TrainingDto> getAfterDate(
             @PathVariable @DateTimeFormat(pattern = "yyyy-MM-dd") String afterTime) {
         LocalDate date = LocalDate.parse(afterTime);
         Date converted = Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
@@ -66,7 +122,7 @@ public class TrainingController {
      * @return lista treningów danego typu
      */
     @GetMapping("/activityType")
-    public List<Training> getByActivity(@RequestParam ActivityType activityType) {
+    public List<TrainingDto> getByActivity(@RequestParam ActivityType activityType) {
         return trainingService.getByActivity(activityType);
     }
 
@@ -77,8 +133,18 @@ public class TrainingController {
      */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Training create(@RequestBody TrainingDto dto) {
-        return trainingService.create(dto);
+    public TrainingDto create(@RequestBody TrainingDto dto) {
+        return TrainingMapper.toDto(trainingService.create(dto));
+    }
+
+    /**
+     * Tworzy wiele treningów jednym żądaniem (zapis wsadowy).
+     * @param dtos lista danych nowych treningów
+     * @return wynik zapisu każdego z treningów, w kolejności przesłanej listy
+     */
+    @PostMapping("/batch")
+    public List<TrainingBatchItemResult> createBatch(@RequestBody List<TrainingDto> dtos) {
+        return trainingService.createAll(dtos);
     }
 
     /**
@@ -88,8 +154,16 @@ public class TrainingController {
      * @return zaktualizowany trening
      */
     @PutMapping("/{trainingId}")
-    public Training updateTraining(@PathVariable Long trainingId, @RequestBody TrainingDto dto) {
-        return trainingService.update(trainingId, dto);
+    public TrainingDto updateTraining(@PathVariable Long trainingId, @RequestBody TrainingDto dto) {
+        return TrainingMapper.toDto(trainingService.update(trainingId, dto));
     }
-}
 
+    private static void writeLine(ObjectWriter writer, OutputStream out, TrainingDto dto) {
+        try {
+            out.write(writer.writeValueAsBytes(dto));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Dzienne podsumowanie treningów użytkownika danego typu aktywności, aktualizowane przyrostowo przy każdej
+ * zmianie treningu. Podsumowania zakresów dat czytają tylko te wiersze, więc ich koszt zależy od liczby dni
+ * w zakresie, a nie od liczby treningów.
+ */
+
+@Entity
+@Table(name = "training_daily_rollup", indexes = {
+        @Index(name = "ix_training_daily_rollup_user_id_day", columnList = "user_id, training_day")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+class TrainingDailyRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "session_count", nullable = false)
+    private long sessionCount;
+
+    @Column(name = "distance_sum", nullable = false)
+    private double distanceSum;
+
+    /**
+     * Łączny czas treningów w sekundach.
+     */
+    @Column(name = "duration_sum", nullable = false)
+    private long durationSum;
+
+    /**
+     * Klucz podsumowania. Hibernate układa kolumny klucza głównego alfabetycznie, dlatego zakres dni użytkownika
+     * czytany jest osobnym indeksem {@code (user_id, training_day)}.
+     */
+    @Embeddable
+    @Getter
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    @EqualsAndHashCode
+    @ToString
+    static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Column(name = "training_day", nullable = false)
+        private LocalDate day;
+
+        @Enumerated(EnumType.ORDINAL)
+        @Column(name = "activity_type", nullable = false)
+        private ActivityType activityType;
+
+    }
+
+}
@@ -0,0 +1,34 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * zapytania na dziennych podsumowaniach treningow
+ * podsumowania sa zmieniane przez {@link TrainingRollupService} poleceniem MERGE wykonywanym przez JDBC
+ */
+
+interface TrainingDailyRollupRepository extends Repository<TrainingDailyRollup, TrainingDailyRollup.Key> {
+
+    /**
+     * Sumuje podsumowania użytkownika z kolejnych dni zakresu, łącząc typy aktywności.
+     * Dni bez treningów nie występują w wyniku.
+     *
+     * @param userId identyfikator użytkownika
+     * @param from   pierwszy dzień zakresu (włącznie)
+     * @param to     ostatni dzień zakresu (włącznie)
+     * @return sumy dzienne uporządkowane po dniu
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.training.internal.DailyTrainingTotals(
+                r.id.day, sum(r.sessionCount), sum(r.distanceSum), sum(r.durationSum))
+            from TrainingDailyRollup r
+            where r.id.userId = :userId and r.id.day between :from and :to and r.sessionCount > 0
+            group by r.id.day
+            order by r.id.day""")
+    List<DailyTrainingTotals> sumDaysOfUser(Long userId, LocalDate from, LocalDate to);
+
+}
@@ -13,16 +13,16 @@ public class TrainingMapper {
 
     /**
      * Konwertuje obiekt Training na TrainingDto.
+     * Identyfikator użytkownika odczytywany jest bez ładowania leniwie pobieranego użytkownika.
      *
      * @param training obiekt Training zawierający dane treningu
-     * @param user obiekt User reprezentujący użytkownika, którego dotyczy trening
      * @return obiekt TrainingDto zawierający zmapowane dane treningu
      */
 
-    public static TrainingDto toDto(Training training, User user) {
+    public static TrainingDto toDto(Training training) {
         TrainingDto dto = new TrainingDto();
         dto.setId(training.getId());
-        dto.setUserId(user.getId());
+        dto.setUserId(training.getUser().getId());
         dto.setStartTime(training.getStartTime());
         dto.setEndTime(training.getEndTime());
         dto.setActivityType(training.getActivityType());
@@ -0,0 +1,64 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import pl.wsb.fitnesstracker.training.api.TrainingDto;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Reaktywne zapytania czytające treningi przez R2DBC na potrzeby API {@code /v2}.
+ * Wiersze mapowane są wprost na {@link TrainingDto}, tak jak projekcja {@link TrainingRepository#SELECT_DTO}.
+ */
+@Repository
+@RequiredArgsConstructor
+class TrainingReactiveRepository {
+
+    private static final String SELECT_DTO =
+            "select id, user_id, start_time, end_time, activity_type, distance, average_speed from trainings";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Strumień wszystkich treningów uporządkowanych po identyfikatorze.
+     * Wiersze czytane są z kursora bazy danych dopiero wtedy, gdy subskrybent o nie poprosi.
+     *
+     * @return strumień wszystkich treningów
+     */
+    Flux<TrainingDto> findAll() {
+        return databaseClient.sql(SELECT_DTO + " order by id")
+                .map(TrainingReactiveRepository::toDto)
+                .all();
+    }
+
+    /**
+     * Strumień treningów użytkownika uporządkowanych po {@code (startTime, id)}, czytany indeksem po użytkowniku.
+     *
+     * @param userId identyfikator użytkownika
+     * @return strumień treningów użytkownika
+     */
+    Flux<TrainingDto> findAllByUserId(long userId) {
+        return databaseClient.sql(SELECT_DTO + " where user_id = :userId order by start_time, id")
+                .bind("userId", userId)
+                .map(TrainingReactiveRepository::toDto)
+                .all();
+    }
+
+    private static TrainingDto toDto(Readable row) {
+        return new TrainingDto(row.get("id", Long.class), row.get("user_id", Long.class),
+                toDate(row.get("start_time", LocalDateTime.class)), toDate(row.get("end_time", LocalDateTime.class)),
+                ActivityType.values()[row.get("activity_type", Number.class).intValue()],
+                row.get("distance", Double.class), row.get("average_speed", Double.class));
+    }
+
+    // kolumny TIMESTAMP bez strefy, interpretowane w domyslnej strefie tak jak przez JDBC
+    private static Date toDate(LocalDateTime timestamp) {
+        return Date.from(timestamp.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+}
@@ -0,0 +1,37 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import pl.wsb.fitnesstracker.training.api.TrainingDto;
+
+/**
+ * Reaktywne API {@code /v2} do odczytu treningów. Listy zwracane są strumieniowo w formacie NDJSON
+ * (jeden trening na linię), z przeciwciśnieniem od gniazda aż do kursora bazy danych.
+ */
+@Configuration
+class TrainingReactiveRoutes {
+
+    @Bean
+    RouterFunction<ServerResponse> trainingReactiveRouter(TrainingReactiveRepository repository) {
+        return RouterFunctions.route()
+                .GET("/v2/trainings", request -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .body(repository.findAll(), TrainingDto.class))
+                .GET("/v2/trainings/{userId}", request -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .body(repository.findAllByUserId(Long.parseLong(request.pathVariable("userId"))), TrainingDto.class))
+                .filter((request, next) -> {
+                    try {
+                        return next.handle(request);
+                    } catch (NumberFormatException e) {
+                        return ServerResponse.badRequest().build();
+                    }
+                })
+                .build();
+    }
+
+}
@@ -1,17 +1,141 @@
 package pl.wsb.fitnesstracker.training.internal;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import pl.wsb.fitnesstracker.training.api.Training;
-import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.training.api.TrainingDto;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 
 interface TrainingRepository extends JpaRepository<Training, Long> {
 
-    List<Training> findAllByUser(User user);
-    List<Training> findAllByEndTimeAfter(Date date);
-    List<Training> findAllByActivityType(ActivityType type);
+    // regiony cache zapytan, wyniki sa uniewazniane przy kazdej zmianie tabeli treningow
+    String BY_USER_REGION = "training-by-user";
+    String BY_END_TIME_REGION = "training-by-end-time";
+    String BY_ACTIVITY_TYPE_REGION = "training-by-activity-type";
+
+    // projekcja odczytow list: sam identyfikator uzytkownika (kolumna user_id), bez zlaczenia z tabela userow
+    String SELECT_DTO = """
+            select new pl.wsb.fitnesstracker.training.api.TrainingDto(
+                t.id, t.user.id, t.startTime, t.endTime, t.activityType, t.distance, t.averageSpeed)
+            from Training t
+            """;
+
+    /**
+     * Trening razem z użytkownikiem, pobranym w tym samym zapytaniu.
+     *
+     * @param id identyfikator treningu
+     * @return trening z zainicjalizowanym użytkownikiem
+     */
+    @EntityGraph(attributePaths = "user")
+    Optional<Training> findWithUserById(Long id);
+
+    /**
+     * Treningi użytkownika razem z użytkownikiem, pobranym w tym samym zapytaniu.
+     * Warunek na kolumnie {@code user_id} treningu, a nie na złączonym użytkowniku, pozwala przeszukać
+     * tabelę treningów indeksem po użytkowniku.
+     *
+     * @param userId identyfikator użytkownika
+     * @return treningi z zainicjalizowanym użytkownikiem
+     */
+    @EntityGraph(attributePaths = "user")
+    @Query("select t from Training t where t.user.id = :userId order by t.id")
+    List<Training> findAllWithUserByUserIdOrderById(Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = BY_USER_REGION)
+    })
+    @Query(SELECT_DTO + "where t.user.id = :userId order by t.id")
+    List<TrainingDto> findAllByUserId(Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = BY_END_TIME_REGION)
+    })
+    @Query(SELECT_DTO + "where t.endTime > :date order by t.id")
+    List<TrainingDto> findAllByEndTimeAfter(Date date);
+
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = BY_ACTIVITY_TYPE_REGION)
+    })
+    @Query(SELECT_DTO + "where t.activityType = :type order by t.id")
+    List<TrainingDto> findAllByActivityType(ActivityType type);
+
+    /**
+     * Pierwsza strona treningów uporządkowanych po {@code (startTime, id)}.
+     *
+     * @param limit maksymalna liczba zwracanych treningów
+     * @return treningi z początku keysetu
+     */
+    @Query(SELECT_DTO + "order by t.startTime, t.id")
+    List<TrainingDto> findFirstPage(Limit limit);
+
+    /**
+     * Kolejna strona treningów uporządkowanych po {@code (startTime, id)}, zaczynająca się za podaną pozycją.
+     *
+     * @param startTime czas rozpoczęcia ostatniego treningu z poprzedniej strony
+     * @param id        identyfikator ostatniego treningu z poprzedniej strony
+     * @param limit     maksymalna liczba zwracanych treningów
+     * @return treningi leżące w keysecie za podaną pozycją
+     */
+    @Query(SELECT_DTO + """
+            where t.startTime >= :startTime and (t.startTime > :startTime or t.id > :id)
+            order by t.startTime, t.id""")
+    List<TrainingDto> findPageAfter(Date startTime, Long id, Limit limit);
+
+    /**
+     * Pierwsza strona treningów użytkownika uporządkowanych po {@code (startTime, id)}.
+     *
+     * @param userId identyfikator użytkownika
+     * @param limit  maksymalna liczba zwracanych treningów
+     * @return treningi użytkownika z początku keysetu
+     */
+    @Query(SELECT_DTO + "where t.user.id = :userId order by t.startTime, t.id")
+    List<TrainingDto> findFirstPageByUser(Long userId, Limit limit);
+
+    /**
+     * Kolejna strona treningów użytkownika uporządkowanych po {@code (startTime, id)}.
+     *
+     * @param userId    identyfikator użytkownika
+     * @param startTime czas rozpoczęcia ostatniego treningu z poprzedniej strony
+     * @param id        identyfikator ostatniego treningu z poprzedniej strony
+     * @param limit     maksymalna liczba zwracanych treningów
+     * @return treningi użytkownika leżące w keysecie za podaną pozycją
+     */
+    @Query(SELECT_DTO + """
+            where t.user.id = :userId
+              and t.startTime >= :startTime and (t.startTime > :startTime or t.id > :id)
+            order by t.startTime, t.id""")
+    List<TrainingDto> findPageByUserAfter(Long userId, Date startTime, Long id, Limit limit);
+
+    /**
+     * Strumień wszystkich treningów w postaci projekcji {@link TrainingDto}, uporządkowany po identyfikatorze.
+     * Wiersze są pobierane z kursora JDBC partiami o rozmiarze {@code fetchSize} i nie trafiają do kontekstu
+     * persystencji, więc zużycie pamięci nie zależy od liczby treningów.
+     * Strumień musi zostać skonsumowany i zamknięty wewnątrz transakcji.
+     *
+     * @return strumień wszystkich treningów
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_DTO + "order by t.id")
+    Stream<TrainingDto> streamAllForExport();
 
 }
@@ -0,0 +1,197 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.training.api.Training;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Utrzymuje dzienne podsumowania treningów ({@link TrainingDailyRollup}) i buduje z nich podsumowania zakresów dat.
+ * Podsumowania zmieniane są w tej samej transakcji co treningi, więc zawsze są z nimi zgodne.
+ * Zmiany wykonywane są przez {@link JdbcTemplate} na połączeniu transakcji JPA, a nie natywnym zapytaniem Hibernate,
+ * które unieważniałoby wszystkie regiony cache drugiego poziomu i cache zapytań.
+ * Dzień treningu wyznaczany jest z czasu rozpoczęcia w domyślnej strefie czasowej, tak jak w pozostałych
+ * zapytaniach po datach.
+ */
+
+@Service
+@RequiredArgsConstructor
+public class TrainingRollupService {
+
+    /**
+     * Dodaje różnicę do podsumowania dnia, zakładając je, jeśli jeszcze nie istnieje.
+     * Zmiana wykonywana jest jednym poleceniem MERGE po zablokowaniu wiersza użytkownika ({@link #lockUsers}),
+     * więc równoległe transakcje nie gubią swoich różnic.
+     */
+    private static final String ADD_DELTA_SQL = """
+            merge into training_daily_rollup r
+            using (values (cast(? as bigint), cast(? as date), cast(? as tinyint),
+                           cast(? as bigint), cast(? as float(53)), cast(? as bigint)))
+                as d(user_id, training_day, activity_type, session_count, distance_sum, duration_sum)
+            on r.user_id = d.user_id and r.training_day = d.training_day and r.activity_type = d.activity_type
+            when matched then update set
+                session_count = r.session_count + d.session_count,
+                distance_sum = r.distance_sum + d.distance_sum,
+                duration_sum = r.duration_sum + d.duration_sum
+            when not matched then insert (user_id, training_day, activity_type, session_count, distance_sum, duration_sum)
+                values (d.user_id, d.training_day, d.activity_type, d.session_count, d.distance_sum, d.duration_sum)""";
+
+    private static final String REBUILD_SQL = """
+            insert into training_daily_rollup (user_id, training_day, activity_type, session_count, distance_sum, duration_sum)
+            select user_id, cast(start_time as date), activity_type, count(*), sum(distance), sum(datediff(second, start_time, end_time))
+            from trainings
+            where user_id between ? and ?
+            group by user_id, cast(start_time as date), activity_type""";
+
+    private final TrainingDailyRollupRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    /**
+     * Dolicza treningi do podsumowań - jedno polecenie na każdy dzień i typ aktywności, niezależnie od liczby treningów,
+     * wysłane do bazy jednym batchem.
+     *
+     * @param trainings zapisane treningi
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Collection<Training> trainings) {
+        Map<RollupKey, RollupDelta> deltas = new LinkedHashMap<>();
+        for (Training training : trainings) {
+            deltas.merge(RollupKey.of(training), RollupDelta.of(training, 1), RollupDelta::plus);
+        }
+        lockUsers(deltas.keySet().stream().map(RollupKey::userId).collect(Collectors.toCollection(TreeSet::new)));
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> rows.add(row(key, delta)));
+        jdbcTemplate.batchUpdate(ADD_DELTA_SQL, rows);
+    }
+
+    /**
+     * Dolicza trening do podsumowania jego dnia.
+     *
+     * @param training zapisany trening
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Training training) {
+        apply(RollupKey.of(training), RollupDelta.of(training, 1));
+    }
+
+    /**
+     * Odejmuje trening od podsumowania jego dnia. Przy zmianie treningu wywoływane przed zmianą,
+     * a {@link #add(Training)} po niej, więc przeniesienie treningu na inny dzień lub typ aktywności
+     * zmienia oba podsumowania.
+     *
+     * @param training trening w stanie przed zmianą
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Training training) {
+        apply(RollupKey.of(training), RollupDelta.of(training, -1));
+    }
+
+    /**
+     * Przelicza od nowa podsumowania użytkowników z zakresu identyfikatorów na podstawie ich treningów.
+     * Przeznaczone dla treningów zapisanych z pominięciem serwisu, np. przez loadery danych.
+     * Niezapisane jeszcze zmiany kontekstu utrwalania są najpierw wysyłane do bazy, żeby zapytanie je widziało.
+     *
+     * @param firstUserId pierwszy identyfikator użytkownika (włącznie)
+     * @param lastUserId  ostatni identyfikator użytkownika (włącznie)
+     */
+    @Transactional
+    public void rebuildRollups(long firstUserId, long lastUserId) {
+        entityManager.flush();
+        jdbcTemplate.update("delete from training_daily_rollup where user_id between ? and ?", firstUserId, lastUserId);
+        jdbcTemplate.update(REBUILD_SQL, firstUserId, lastUserId);
+    }
+
+    /**
+     * Podsumowuje treningi użytkownika w kolejnych okresach zakresu dat, czytając wyłącznie podsumowania dzienne.
+     * Okresy bez treningów są pomijane; pierwszy i ostatni okres obejmują tylko dni należące do zakresu.
+     *
+     * @param userId      identyfikator użytkownika
+     * @param from        pierwszy dzień zakresu (włącznie)
+     * @param to          ostatni dzień zakresu (włącznie)
+     * @param granularity okres podsumowania
+     * @return podsumowania okresów uporządkowane po dacie
+     * @throws BusinessException jeśli zakres jest pusty
+     */
+    @Transactional(readOnly = true)
+    public List<TrainingSummaryDto> summarize(Long userId, LocalDate from, LocalDate to, SummaryGranularity granularity) {
+        if (from.isAfter(to)) {
+            throw new BusinessException("from must not be after to");
+        }
+        List<TrainingSummaryDto> periods = new ArrayList<>();
+        for (DailyTrainingTotals day : repository.sumDaysOfUser(userId, from, to)) {
+            LocalDate periodStart = granularity.periodStart(day.day());
+            int last = periods.size() - 1;
+            if (last >= 0 && periods.get(last).periodStart().equals(periodStart)) {
+                TrainingSummaryDto period = periods.get(last);
+                periods.set(last, new TrainingSummaryDto(periodStart, period.sessions() + day.sessions(),
+                        period.distance() + day.distance(), period.durationSeconds() + day.durationSecs()));
+            } else {
+                periods.add(new TrainingSummaryDto(periodStart, day.sessions(), day.distance(), day.durationSecs()));
+            }
+        }
+        return periods;
+    }
+
+    private void apply(RollupKey key, RollupDelta delta) {
+        lockUsers(List.of(key.userId()));
+        jdbcTemplate.update(ADD_DELTA_SQL, row(key, delta));
+    }
+
+    /**
+     * Blokuje wiersze użytkowników do końca transakcji, w kolejności identyfikatorów, więc równoległe transakcje
+     * się nie zakleszczają. MERGE w H2 nie jest atomowy: dwie transakcje zakładające podsumowanie tego samego dnia
+     * naruszyłyby klucz główny, dlatego zmiany podsumowań jednego użytkownika są szeregowane blokadą jego wiersza.
+     *
+     * @param userIds identyfikatory użytkowników, uporządkowane rosnąco
+     */
+    private void lockUsers(Collection<Long> userIds) {
+        String placeholders = String.join(", ", Collections.nCopies(userIds.size(), "?"));
+        jdbcTemplate.queryForList("select id from users where id in (" + placeholders + ") order by id for update",
+                Long.class, userIds.toArray());
+    }
+
+    private static Object[] row(RollupKey key, RollupDelta delta) {
+        return new Object[]{key.userId(), key.day(), key.activityType().ordinal(),
+                delta.sessions(), delta.distance(), delta.durationSecs()};
+    }
+
+    private record RollupKey(Long userId, LocalDate day, ActivityType activityType) {
+
+        static RollupKey of(Training training) {
+            LocalDate day = LocalDate.ofInstant(training.getStartTime().toInstant(), ZoneId.systemDefault());
+            return new RollupKey(training.getUser().getId(), day, training.getActivityType());
+        }
+
+    }
+
+    private record RollupDelta(long sessions, double distance, long durationSecs) {
+
+        static RollupDelta of(Training training, int sign) {
+            long duration = Duration.between(training.getStartTime().toInstant(), training.getEndTime().toInstant()).toSeconds();
+            return new RollupDelta(sign, sign * training.getDistance(), sign * duration);
+        }
+
+        RollupDelta plus(RollupDelta other) {
+            return new RollupDelta(sessions + other.sessions, distance + other.distance, durationSecs + other.durationSecs);
+        }
+
+    }
+
+}
@@ -1,36 +1,70 @@
 
 package pl.wsb.fitnesstracker.training.internal;
 
+import jakarta.annotation.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.pagination.api.CursorPage;
+import pl.wsb.fitnesstracker.pagination.api.InvalidCursorException;
+import pl.wsb.fitnesstracker.pagination.api.KeysetCursor;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsService;
 import pl.wsb.fitnesstracker.training.api.*;
 import pl.wsb.fitnesstracker.user.api.User;
 import pl.wsb.fitnesstracker.user.api.UserProvider;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementacja serwisu do zarządzania operacjami związanymi z treningami.
  * Zapewnia operacje CRUD oraz różne funkcjonalności wyszukiwania dla rekordów treningów.
+ * Każda zmiana treningów przekazuje różnicę do statystyk użytkownika, uwzględnianą po zatwierdzeniu transakcji,
+ * oraz do dziennych podsumowań treningów, zmienianych w tej samej transakcji.
  */
 
 @Service
 public class TrainingServiceImpl implements TrainingService {
 
+    static final int MAX_BATCH_SIZE = 1000;
+
     private final TrainingRepository repository;
     private final UserProvider userProvider;
+    private final StatisticsService statisticsService;
+    private final TrainingRollupService rollupService;
 
     @Autowired
-    public TrainingServiceImpl(TrainingRepository repository, UserProvider userProvider) {
+    public TrainingServiceImpl(TrainingRepository repository, UserProvider userProvider, StatisticsService statisticsService,
+                               TrainingRollupService rollupService) {
         this.repository = repository;
         this.userProvider = userProvider;
+        this.statisticsService = statisticsService;
+        this.rollupService = rollupService;
     }
 
+    /**
+     * Pobiera trening razem z użytkownikiem, więc może być używany poza transakcją.
+     *
+     * @param trainingId identyfikator treningu
+     * @return trening lub pusty optional, jeśli trening nie istnieje
+     */
+
     @Override
     public Optional<Training> getTraining(Long trainingId) {
-        return repository.findById(trainingId);
+        return repository.findWithUserById(trainingId);
     }
 
     /**
@@ -46,13 +80,25 @@ public class TrainingServiceImpl implements TrainingService {
     }
 
     /**
-     * Pobiera wszystkie rekordy treningów z bazy danych.
+     * Pobiera stronę treningów uporządkowanych po czasie rozpoczęcia (paginacja keyset).
+     * Koszt pobrania strony nie zależy od jej położenia w tabeli, a treningi czytane są projekcją bez użytkowników.
      *
-     * @return lista wszystkich treningów
+     * @param cursor token kolejnej strony zwrócony w poprzedniej odpowiedzi lub {@code null} dla pierwszej strony
+     * @param limit  maksymalna liczba treningów na stronie
+     * @return strona treningów wraz z tokenem kolejnej strony
+     * @throws InvalidCursorException jeśli token lub limit są niepoprawne
      */
 
-    public List<Training> getAll() {
-        return repository.findAll();
+    public CursorPage<TrainingDto> getPage(@Nullable String cursor, int limit) {
+        Limit fetchLimit = Limit.of(CursorPage.validateLimit(limit) + 1);
+        List<TrainingDto> rows;
+        if (cursor == null) {
+            rows = repository.findFirstPage(fetchLimit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = repository.findPageAfter(toStartTime(position), position.id(), fetchLimit);
+        }
+        return CursorPage.of(rows, limit, TrainingServiceImpl::toCursor);
     }
 
     /**
@@ -63,10 +109,49 @@ public class TrainingServiceImpl implements TrainingService {
      * @throws IllegalArgumentException jeśli użytkownik nie zostanie znaleziony
      */
 
-    public List<Training> getByUser(Long userId) {
-        User user = userProvider.getUser(userId)
+    public List<TrainingDto> getByUser(Long userId) {
+        userProvider.getUser(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        return repository.findAllByUserId(userId);
+    }
+
+    /**
+     * Pobiera stronę treningów określonego użytkownika uporządkowanych po czasie rozpoczęcia (paginacja keyset).
+     *
+     * @param userId identyfikator użytkownika
+     * @param cursor token kolejnej strony zwrócony w poprzedniej odpowiedzi lub {@code null} dla pierwszej strony
+     * @param limit  maksymalna liczba treningów na stronie
+     * @return strona treningów użytkownika wraz z tokenem kolejnej strony
+     * @throws IllegalArgumentException jeśli użytkownik nie zostanie znaleziony
+     * @throws InvalidCursorException   jeśli token lub limit są niepoprawne
+     */
+
+    public CursorPage<TrainingDto> getPageByUser(Long userId, @Nullable String cursor, int limit) {
+        Limit fetchLimit = Limit.of(CursorPage.validateLimit(limit) + 1);
+        userProvider.getUser(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        return repository.findAllByUser(user);
+        List<TrainingDto> rows;
+        if (cursor == null) {
+            rows = repository.findFirstPageByUser(userId, fetchLimit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = repository.findPageByUserAfter(userId, toStartTime(position), position.id(), fetchLimit);
+        }
+        return CursorPage.of(rows, limit, TrainingServiceImpl::toCursor);
+    }
+
+    /**
+     * Przekazuje wszystkie treningi, jeden po drugim, do podanego konsumenta.
+     * Treningi są czytane strumieniowo z kursora bazy danych, więc żadna lista wszystkich treningów nie jest budowana w pamięci.
+     *
+     * @param consumer konsument otrzymujący kolejne treningi
+     */
+
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<TrainingDto> consumer) {
+        try (Stream<TrainingDto> trainings = repository.streamAllForExport()) {
+            trainings.forEach(consumer);
+        }
     }
 
     /**
@@ -76,7 +161,7 @@ public class TrainingServiceImpl implements TrainingService {
      * @return lista treningów pasujących do typu aktywności
      */
 
-    public List<Training> getByActivity(ActivityType type) {
+    public List<TrainingDto> getByActivity(ActivityType type) {
         return repository.findAllByActivityType(type);
     }
 
@@ -87,7 +172,7 @@ public class TrainingServiceImpl implements TrainingService {
      * @return lista treningów zakończonych po określonej dacie
      */
 
-    public List<Training> getAfterDate(Date date) {
+    public List<TrainingDto> getAfterDate(Date date) {
         return repository.findAllByEndTimeAfter(date);
     }
 
@@ -99,10 +184,71 @@ public class TrainingServiceImpl implements TrainingService {
      * @throws IllegalArgumentException jeśli użytkownik określony w DTO nie zostanie znaleziony
      */
 
+    @Transactional
     public Training create(TrainingDto dto) {
         User user = userProvider.getUser(dto.getUserId())
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        return repository.save(TrainingMapper.fromDto(dto, user));
+        Training training = repository.save(TrainingMapper.fromDto(dto, user));
+        statisticsService.applyTrainingDelta(user, 1, training.getDistance());
+        rollupService.add(training);
+        return training;
+    }
+
+    /**
+     * Tworzy wiele treningów w jednej transakcji.
+     * Wszyscy użytkownicy są pobierani jednym zapytaniem, a treningi zapisywane wsadowo (JDBC batch),
+     * dzięki identyfikatorom przydzielanym z puli sekwencji.
+     * Puste elementy listy, treningi z brakującymi danymi lub nieistniejącym użytkownikiem są odrzucane,
+     * pozostałe zostają zapisane.
+     *
+     * @param dtos lista obiektów DTO zawierających szczegóły treningów
+     * @return wyniki zapisu dla każdego treningu, w kolejności przesłanej listy
+     * @throws BusinessException jeśli lista zawiera więcej niż {@value #MAX_BATCH_SIZE} treningów
+     */
+
+    @Transactional
+    public List<TrainingBatchItemResult> createAll(List<TrainingDto> dtos) {
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new BusinessException("Batch must not contain more than %s trainings".formatted(MAX_BATCH_SIZE));
+        }
+        Set<Long> userIds = dtos.stream()
+                .filter(Objects::nonNull)
+                .map(TrainingDto::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, User> users = userProvider.getUsers(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<TrainingBatchItemResult> results = new ArrayList<>(dtos.size());
+        List<Training> accepted = new ArrayList<>(dtos.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(dtos.size());
+        for (int index = 0; index < dtos.size(); index++) {
+            TrainingDto dto = dtos.get(index);
+            if (dto == null) {
+                results.add(TrainingBatchItemResult.rejected(index, "Training is required"));
+                continue;
+            }
+            User user = dto.getUserId() == null ? null : users.get(dto.getUserId());
+            if (user == null) {
+                results.add(TrainingBatchItemResult.rejected(index, "User not found"));
+            } else if (dto.getStartTime() == null || dto.getEndTime() == null || dto.getActivityType() == null) {
+                results.add(TrainingBatchItemResult.rejected(index, "startTime, endTime and activityType are required"));
+            } else {
+                results.add(null);
+                accepted.add(TrainingMapper.fromDto(dto, user));
+                acceptedIndexes.add(index);
+            }
+        }
+
+        List<Training> saved = repository.saveAll(accepted);
+        repository.flush();
+        applyStatisticsDeltas(saved);
+        rollupService.add(saved);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            results.set(index, TrainingBatchItemResult.created(index, saved.get(i).getId()));
+        }
+        return results;
     }
 
     /**
@@ -114,9 +260,14 @@ public class TrainingServiceImpl implements TrainingService {
      * @throws TrainingNotFoundException jeśli trening nie zostanie znaleziony
      */
 
+    @Transactional
     public Training updateDistance(Long id, double distance) {
         Training training = getOrThrow(id);
+        double previousDistance = training.getDistance();
+        rollupService.remove(training);
         training.setDistance(distance);
+        statisticsService.applyTrainingDelta(training.getUser(), 0, distance - previousDistance);
+        rollupService.add(training);
         return repository.save(training);
     }
 
@@ -128,8 +279,11 @@ public class TrainingServiceImpl implements TrainingService {
      * @return zaktualizowana encja treningu
      * @throws TrainingNotFoundException jeśli trening nie zostanie znaleziony
      */
+    @Transactional
     public Training update(Long id, TrainingDto dto) {
         Training training = getOrThrow(id);
+        double previousDistance = training.getDistance();
+        rollupService.remove(training);
 
         if (dto.getStartTime() != null) {
             training.setStartTime(dto.getStartTime());
@@ -142,12 +296,33 @@ public class TrainingServiceImpl implements TrainingService {
         }
         training.setDistance(dto.getDistance());
         training.setAverageSpeed(dto.getAverageSpeed());
+        statisticsService.applyTrainingDelta(training.getUser(), 0, dto.getDistance() - previousDistance);
+        rollupService.add(training);
 
         return repository.save(training);
     }
 
     /**
-     * zwraca liste treningow przypisanych do usera
+     * Podsumowuje treningi użytkownika w kolejnych dniach, tygodniach lub miesiącach zakresu dat.
+     * Czytane są wyłącznie dzienne podsumowania, więc koszt zależy od liczby dni w zakresie, a nie od liczby treningów.
+     *
+     * @param userId      identyfikator użytkownika
+     * @param from        pierwszy dzień zakresu (włącznie)
+     * @param to          ostatni dzień zakresu (włącznie)
+     * @param granularity okres podsumowania
+     * @return podsumowania okresów z treningami, uporządkowane po dacie
+     * @throws IllegalArgumentException jeśli użytkownik nie zostanie znaleziony
+     * @throws BusinessException        jeśli zakres dat jest pusty
+     */
+
+    public List<TrainingSummaryDto> getSummary(Long userId, LocalDate from, LocalDate to, SummaryGranularity granularity) {
+        userProvider.getUser(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        return rollupService.summarize(userId, from, to, granularity);
+    }
+
+    /**
+     * zwraca liste treningow przypisanych do usera, razem z userem pobranym w tym samym zapytaniu
      *
      * @param userId identyfikator usera dla ktorego maja zostac pobrane treningi
      * @return lista treningow usera o podanym id
@@ -155,7 +330,31 @@ public class TrainingServiceImpl implements TrainingService {
 
     @Override
     public List<Training> findTrainingsByUser(Long userId) {
-        return getByUser(userId);
+        userProvider.getUser(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        return repository.findAllWithUserByUserIdOrderById(userId);
+    }
+
+    /**
+     * Aktualizuje statystyki jednym poleceniem na użytkownika, niezależnie od liczby jego zapisanych treningów.
+     */
+    private void applyStatisticsDeltas(List<Training> trainings) {
+        Map<User, List<Training>> byUser = trainings.stream()
+                .collect(Collectors.groupingBy(Training::getUser, LinkedHashMap::new, Collectors.toList()));
+        byUser.forEach((user, userTrainings) -> statisticsService.applyTrainingDelta(user, userTrainings.size(),
+                userTrainings.stream().mapToDouble(Training::getDistance).sum()));
+    }
+
+    private static KeysetCursor toCursor(TrainingDto training) {
+        return new KeysetCursor(Long.toString(training.getStartTime().getTime()), training.getId());
+    }
+
+    private static Date toStartTime(KeysetCursor cursor) {
+        try {
+            return new Date(Long.parseLong(cursor.sortKey()));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor.encode());
+        }
     }
 
 }
\ No newline at end of file
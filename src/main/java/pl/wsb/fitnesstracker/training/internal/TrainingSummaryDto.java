@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import java.time.LocalDate;
+
+/**
+ * Podsumowanie treningów użytkownika w jednym okresie (dniu, tygodniu lub miesiącu).
+ *
+ * @param periodStart     pierwszy dzień okresu
+ * @param sessions        liczba treningów rozpoczętych w okresie
+ * @param distance        łączny dystans
+ * @param durationSeconds łączny czas treningów w sekundach
+ */
+record TrainingSummaryDto(LocalDate periodStart, long sessions, double distance, long durationSeconds) {
+
+}
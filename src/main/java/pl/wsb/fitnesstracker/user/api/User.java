@@ -6,11 +6,21 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
+import java.util.Locale;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "ux_users_email_normalized", columnList = "email_normalized", unique = true),
+        @Index(name = "ix_users_last_name_normalized", columnList = "last_name_normalized, first_name_normalized"),
+        @Index(name = "ix_users_first_name_normalized", columnList = "first_name_normalized"),
+        @Index(name = "ix_users_birthdate", columnList = "birthdate, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString
@@ -27,12 +37,31 @@ public class User {
     @Column(name = "last_name", nullable = false)
     private String lastName;
 
+    /**
+     * imie i nazwisko malymi literami, wyszukiwanie bez rozrozniania wielkosci liter korzysta z ich indeksow
+     */
+    @Getter(AccessLevel.NONE)
+    @Column(name = "first_name_normalized", nullable = false)
+    private String firstNameNormalized;
+
+    @Getter(AccessLevel.NONE)
+    @Column(name = "last_name_normalized", nullable = false)
+    private String lastNameNormalized;
+
     @Column(name = "birthdate", nullable = false)
     private LocalDate birthdate;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
+    /**
+     * email malymi literami, wyszukiwanie po nim korzysta z unikalnego indeksu,
+     * ktory pilnuje tez unikalnosci emaili bez rozrozniania wielkosci liter
+     */
+    @Getter(AccessLevel.NONE)
+    @Column(name = "email_normalized", nullable = false)
+    private String emailNormalized;
+
     /**
      * tworzy nowego usera
      * @param firstName imie usera
@@ -48,9 +77,32 @@ public class User {
             final String email) {
 
         this.firstName = firstName;
+        this.firstNameNormalized = normalizeName(firstName);
         this.lastName = lastName;
+        this.lastNameNormalized = normalizeName(lastName);
         this.birthdate = birthdate;
         this.email = email;
+        this.emailNormalized = normalizeEmail(email);
+    }
+
+    /**
+     * sprowadza email do postaci zapisywanej w kolumnie email_normalized
+     * @param email email usera
+     * @return email malymi literami
+     */
+
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * sprowadza imie lub nazwisko do postaci zapisywanej w kolumnach first_name_normalized i last_name_normalized
+     * @param name imie lub nazwisko usera
+     * @return imie lub nazwisko malymi literami
+     */
+
+    public static String normalizeName(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -60,6 +112,7 @@ public class User {
 
     public void setFirstName(String firstName) {
         this.firstName = firstName;
+        this.firstNameNormalized = normalizeName(firstName);
     }
 
     /**
@@ -69,6 +122,7 @@ public class User {
 
     public void setLastName(String lastName) {
         this.lastName = lastName;
+        this.lastNameNormalized = normalizeName(lastName);
     }
 
     /**
@@ -86,6 +140,7 @@ public class User {
      */
     public void setEmail(String email) {
         this.email = email;
+        this.emailNormalized = normalizeEmail(email);
     }
 }
 
@@ -7,6 +7,10 @@ public class UserListItemDto {
     private final String lastName;
     private final String email;
 
+    public UserListItemDto(Long id, String firstName, String lastName) {
+        this(id, firstName, lastName, null);
+    }
+
     public UserListItemDto(Long id, String firstName, String lastName, String email) {
         this.id = id;
         this.firstName = firstName;
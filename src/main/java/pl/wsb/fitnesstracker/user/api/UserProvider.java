@@ -1,5 +1,6 @@
 package pl.wsb.fitnesstracker.user.api;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +16,16 @@ public interface UserProvider {
     Optional<User> getUser(Long userId);
 
     /**
-     * Retrieves a user based on their email.
+     * Retrieves all users with the given IDs using a single query.
+     * IDs which don't match any user are skipped, so the result might be smaller than the given collection.
+     *
+     * @param userIds ids of the users to be searched
+     * @return users found for the given IDs, in no particular order
+     */
+    List<User> getUsers(Collection<Long> userIds);
+
+    /**
+     * Retrieves a user based on their email, compared case-insensitively.
      * If the user with given email is not found, then {@link Optional#empty()} will be returned.
      *
      * @param email The email of the user to be searched
@@ -1,7 +1,12 @@
 package pl.wsb.fitnesstracker.user.api;
 
+import jakarta.annotation.Nullable;
+import org.springframework.data.domain.Pageable;
+import pl.wsb.fitnesstracker.pagination.api.CursorPage;
+
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface (API) for modifying operations on {@link User} entities through the API.
@@ -18,15 +23,17 @@ public interface UserService {
     User createUser(User user);
 
     /**
-     * wyszukuje userow po zadanych kryteriach
+     * wyszukuje userow po zadanych kryteriach, pominiete kryteria ({@code null}) nie zawezaja wynikow
      * @param firstName imie usera
      * @param lastName nazwisko usera
      * @param email email usera
      * @param birthdate data urodzenia usera
+     * @param pageable strona i sortowanie wynikow
      * @return lista userow spelniajacych kryteria
      */
 
-    List<User> searchUsers(String firstName, String lastName, String email, LocalDate birthdate);
+    List<User> searchUsers(@Nullable String firstName, @Nullable String lastName, @Nullable String email,
+                           @Nullable LocalDate birthdate, Pageable pageable);
 
     /**
      * usuwa usera o konkretnym ID
@@ -45,20 +52,32 @@ public interface UserService {
     User updateUser(Long userId, User user);
 
     /**
-     * Znajduje użytkownika na podstawie adresu e-mail (bez rozróżniania wielkości liter).
-     * @param email adres e-mail użytkownika
-     * @return lista zawierająca tylko jeden element: id i email użytkownika
+     * Znajduje użytkowników, których adres e-mail zawiera podany fragment (bez rozróżniania wielkości liter).
+     * @param email fragment adresu e-mail użytkownika
+     * @param limit maksymalna liczba zwróconych użytkowników lub {@code null} bez ograniczenia
+     * @return lista użytkowników (id, imię, nazwisko i email) uporządkowana po id
+     */
+    List<UserListItemDto> findUserByEmail(String email, @Nullable Integer limit);
+
+    /**
+     * Pobiera stronę użytkowników starszych niż podana data, uporządkowanych po dacie urodzenia i id (paginacja keyset).
+     *
+     * @param birthdate Data graniczna (użytkownicy muszą być starsi od tej daty)
+     * @param cursor    Token kolejnej strony zwrócony w poprzedniej odpowiedzi lub {@code null} dla pierwszej strony
+     * @param limit     Maksymalna liczba użytkowników na stronie
+     * @return Strona użytkowników spełniających kryterium wieku wraz z tokenem kolejnej strony
      */
-    List<UserListItemDto> findUserByEmail(String email);
+
+    CursorPage<User> findUsersOlderThan(LocalDate birthdate, @Nullable String cursor, int limit);
 
     /**
-     * Pobiera listę użytkowników starszych niż podana data.
+     * Zlicza użytkowników starszych niż podana data, bez ich pobierania.
      *
      * @param birthdate Data graniczna (użytkownicy muszą być starsi od tej daty)
-     * @return Lista użytkowników spełniających kryterium wieku
+     * @return Liczba użytkowników spełniających kryterium wieku
      */
 
-    List<User> findUsersOlderThan(LocalDate birthdate);
+    long countUsersOlderThan(LocalDate birthdate);
 
     /**
      * Pobiera listę uproszczoną wszystkich użytkowników (bez szczegółowych danych).
@@ -69,6 +88,15 @@ public interface UserService {
 
     List<UserListItemDto> findAllSimpleUsers();
 
+    /**
+     * Przekazuje uproszczone DTO wszystkich użytkowników, jedno po drugim, do podanego konsumenta.
+     * Dane są czytane strumieniowo z kursora bazy danych, bez budowania encji ani listy wszystkich użytkowników w pamięci.
+     *
+     * @param consumer Konsument otrzymujący kolejne uproszczone DTO użytkowników
+     */
+
+    void forEachSimpleUser(Consumer<UserListItemDto> consumer);
+
     /**
      * zwraca liste userow w postaci pelnych obiektow
      *
@@ -0,0 +1,45 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link UserProvider} reading users by ID through the {@link UserCache}, other lookups go straight to the database.
+ */
+@Component
+@Primary
+@RequiredArgsConstructor
+class CachingUserProvider implements UserProvider {
+
+    private final UserServiceImpl delegate;
+
+    private final UserCache userCache;
+
+    @Override
+    public Optional<User> getUser(Long userId) {
+        return userCache.get(userId, delegate::getUser);
+    }
+
+    @Override
+    public List<User> getUsers(Collection<Long> userIds) {
+        return delegate.getUsers(userIds);
+    }
+
+    @Override
+    public Optional<User> getUserByEmail(String email) {
+        return delegate.getUserByEmail(email);
+    }
+
+    @Override
+    public List<User> findAllUsers() {
+        return delegate.findAllUsers();
+    }
+
+}
@@ -0,0 +1,94 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of users read by ID, with size and time based eviction (W-TinyLFU).
+ * <p>
+ * Only committed users are cached: a user loaded within a transaction is put into the cache after the transaction
+ * commits. Every invalidation advances the generation, and a user is put only if no invalidation happened since
+ * it started loading, so a user loaded before a concurrent update can never be cached after the update's invalidation.
+ * The hit, miss and eviction counts are exported as the {@code cache.*} metrics with the {@code cache=users} tag.
+ */
+@Component
+class UserCache {
+
+    static final String NAME = "users";
+
+    private final Cache<Long, User> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    UserCache(UserCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    /**
+     * Returns the cached user or loads it, caching it once its state is committed. Missing users are not cached.
+     */
+    Optional<User> get(Long userId, Function<Long, Optional<User>> loader) {
+        User cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long loadedGeneration = generation.get();
+        Optional<User> loaded = loader.apply(userId);
+        loaded.ifPresent(user -> afterCommit(() -> putIfNotInvalidated(userId, user, loadedGeneration)));
+        return loaded;
+    }
+
+    /**
+     * Evicts the user immediately and again when the current transaction completes, so neither the state read
+     * before the change nor the one loaded while the change was in progress is served afterwards.
+     */
+    void invalidate(Long userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long userId) {
+        generation.incrementAndGet();
+        // waits for the put of the same user in progress, which either sees the new generation or gets evicted here
+        cache.asMap().remove(userId);
+    }
+
+    private void putIfNotInvalidated(Long userId, User user, long loadedGeneration) {
+        cache.asMap().compute(userId, (id, current) -> generation.get() == loadedGeneration ? user : current);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+}
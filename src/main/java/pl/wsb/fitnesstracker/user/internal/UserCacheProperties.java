@@ -0,0 +1,32 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the in-process cache of users read by ID.
+ */
+@ConfigurationProperties(prefix = "user.cache")
+@Getter
+class UserCacheProperties {
+
+    /**
+     * Maximal number of cached users, the least valuable ones are evicted when exceeded.
+     */
+    private final long maximumSize;
+
+    /**
+     * Time after which the cached user is evicted, bounding the staleness of users changed by other nodes.
+     */
+    private final Duration expireAfterWrite;
+
+    UserCacheProperties(@DefaultValue("10000") long maximumSize,
+                        @DefaultValue("10m") Duration expireAfterWrite) {
+        this.maximumSize = maximumSize;
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+}
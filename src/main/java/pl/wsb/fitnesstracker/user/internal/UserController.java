@@ -1,14 +1,26 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.wsb.fitnesstracker.pagination.api.CursorPage;
 import pl.wsb.fitnesstracker.user.api.User;
 import pl.wsb.fitnesstracker.user.api.UserListItemDto;
 import pl.wsb.fitnesstracker.user.api.UserNotFoundException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -21,6 +33,8 @@ class UserController {
 
     private final UserMapper userMapper;
 
+    private final ObjectMapper objectMapper;
+
     /**
      * Pobiera listę wszystkich użytkowników.
      *
@@ -37,16 +51,14 @@ class UserController {
 
     /**
      * Pobiera uproszczoną listę użytkowników z podstawowymi danymi (ID, imię, nazwisko).
+     * Lista jest zapisywana strumieniowo jako tablica JSON, wprost z projekcji czytanej kursorem bazy danych.
      *
      * @return Lista uproszczonych DTO użytkowników
      */
 
     @GetMapping("/basic")
-    public List<UserListItemDto> getAllUsersBasic() {
-        return userService.findAllUsers()
-                .stream()
-                .map(userMapper::toListItemDto)
-                .toList();
+    public ResponseEntity<StreamingResponseBody> getAllUsersBasic() {
+        return streamSimpleUsers();
     }
 
     /**
@@ -70,6 +82,7 @@ class UserController {
      * @param lastName nazwisko
      * @param email email
      * @param birthdate data urodzenia
+     * @param pageable strona wynikow ({@code page}, {@code size}) i sortowanie ({@code sort}), domyslnie pierwsze 50 po id
      * @return lista znalezionych userow
      */
 
@@ -78,9 +91,10 @@ class UserController {
             @RequestParam(required = false) String firstName,
             @RequestParam(required = false) String lastName,
             @RequestParam(required = false) String email,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate birthdate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate birthdate,
+            @PageableDefault(size = CursorPage.DEFAULT_LIMIT, sort = "id") Pageable pageable
     ) {
-        return userService.searchUsers(firstName, lastName, email, birthdate)
+        return userService.searchUsers(firstName, lastName, email, birthdate, pageable)
                 .stream()
                 .map(userMapper::toDto)
                 .toList();
@@ -127,39 +141,79 @@ class UserController {
      * Wyszukuje użytkowników na podstawie fragmentu adresu e-mail.
      *
      * @param email Fragment adresu e-mail do wyszukania
+     * @param limit Maksymalna liczba zwróconych użytkowników (opcjonalnie)
      * @return Lista uproszczonych DTO użytkowników pasujących do podanego fragmentu
      */
 
     @GetMapping("/email")
-    public List<UserListItemDto> getUserByEmail(@RequestParam String email) {
-        return userService.findUserByEmail(email);
+    public List<UserListItemDto> getUserByEmail(@RequestParam String email, @RequestParam(required = false) @Nullable Integer limit) {
+        return userService.findUserByEmail(email, limit);
     }
 
     /**
-     * Pobraj użytkowników starszych niż podany czas.
+     * Pobiera stronę użytkowników starszych niż podany czas, uporządkowanych po dacie urodzenia.
      *
      * @param time Data graniczna
-     * @return Lista użytkowników starszych niż data graniczna
+     * @param cursor token kolejnej strony z poprzedniej odpowiedzi (pominięty dla pierwszej strony)
+     * @param limit maksymalna liczba użytkowników na stronie
+     * @return Strona użytkowników starszych niż data graniczna wraz z tokenem kolejnej strony
      */
 
     @GetMapping("/older/{time}")
-    public List<UserDto> getUsersOlderThan(@PathVariable("time") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate time) {
-        return userService.findUsersOlderThan(time)
-                .stream()
-                .map(userMapper::toDto)
-                .toList();
+    public CursorPage<UserDto> getUsersOlderThan(
+            @PathVariable("time") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate time,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return userService.findUsersOlderThan(time, cursor, limit)
+                .map(userMapper::toDto);
+    }
+
+    /**
+     * Zlicza użytkowników starszych niż podany czas, bez zwracania ich danych.
+     *
+     * @param time Data graniczna
+     * @return Liczba użytkowników starszych niż data graniczna
+     */
+
+    @GetMapping(value = "/older/{time}", params = "countOnly=true")
+    public UserCountDto countUsersOlderThan(@PathVariable("time") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate time) {
+        return new UserCountDto(userService.countUsersOlderThan(time));
     }
 
     /**
      * Pobiera podstawową listę wszystkich użytkowników w uproszczonej formie.
+     * Lista jest zapisywana strumieniowo jako tablica JSON, wprost z projekcji czytanej kursorem bazy danych.
      *
      * @return Odpowiedź HTTP z listą uproszczonych użytkowników
      */
 
     @GetMapping("/simple")
-    public ResponseEntity<List<UserListItemDto>> getAllSimpleUsers() {
-        List<UserListItemDto> simpleUsers = userService.findAllSimpleUsers();
-        return ResponseEntity.ok(simpleUsers);
+    public ResponseEntity<StreamingResponseBody> getAllSimpleUsers() {
+        return streamSimpleUsers();
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamSimpleUsers() {
+        // flushing after every user would write each of them separately to the response
+        ObjectWriter writer = objectMapper.writerFor(UserListItemDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                userService.forEachSimpleUser(user -> writeValue(writer, generator, user));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private static void writeValue(ObjectWriter writer, JsonGenerator generator, UserListItemDto user) {
+        try {
+            writer.writeValue(generator, user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
 
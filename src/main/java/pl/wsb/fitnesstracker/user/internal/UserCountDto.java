@@ -0,0 +1,5 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+record UserCountDto(long count) {
+
+}
@@ -0,0 +1,91 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.event.spi.PreDeleteEvent;
+import org.hibernate.event.spi.PreDeleteEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Utrzymuje indeks trigramow emaili zgodny z tabela users przy kazdym zapisie i usunieciu usera przez Hibernate,
+ * niezaleznie od tego, czy odbywa sie przez {@link UserServiceImpl}, czy bezposrednio przez repozytorium.
+ * Rejestrowany w Hibernate z pakietu internal, wiec encja {@link User} nie zalezy od implementacji indeksu.
+ */
+
+@Component
+@RequiredArgsConstructor
+class UserEmailIndexListener implements PostInsertEventListener, PostUpdateEventListener, PreDeleteEventListener {
+
+    private static final String EMAIL_PROPERTY = "emailNormalized";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserEmailTrigramIndex index;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.PRE_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof User user) {
+            index.index(user.getId(), emailNormalized(event.getPersister(), event.getState()));
+        }
+    }
+
+    /**
+     * trigramy sa przeliczane tylko przy zmianie emaila, zmiana pozostalych pol usera nie dotyka indeksu
+     */
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof User user) {
+            String email = emailNormalized(event.getPersister(), event.getState());
+            Object[] oldState = event.getOldState();
+            if (oldState == null || !Objects.equals(emailNormalized(event.getPersister(), oldState), email)) {
+                index.index(user.getId(), email);
+            }
+        }
+    }
+
+    /**
+     * trigramy sa usuwane przed usunieciem usera, tabela trigramow nie ma klucza obcego do users
+     */
+
+    @Override
+    public boolean onPreDelete(PreDeleteEvent event) {
+        if (event.getEntity() instanceof User user) {
+            index.remove(user.getId());
+        }
+        return false;
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static String emailNormalized(EntityPersister persister, Object[] state) {
+        int property = Arrays.asList(persister.getPropertyNames()).indexOf(EMAIL_PROPERTY);
+        return (String) state[property];
+    }
+
+}
@@ -0,0 +1,43 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Wpis indeksu trigramow emaili: trzyznakowy fragment znormalizowanego emaila usera.
+ * Klucz glowny (trigram, user_id) sluzy jako lista wystapien (posting list) trigramu.
+ */
+
+@Entity
+@Table(name = "user_email_trigrams", indexes = @Index(name = "ix_user_email_trigrams_user_id", columnList = "user_id"))
+@IdClass(UserEmailTrigram.Key.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+class UserEmailTrigram {
+
+    @Id
+    @Column(name = "trigram", length = UserEmailTrigramIndex.GRAM_LENGTH)
+    private String trigram;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Key implements Serializable {
+
+        private String trigram;
+
+        private Long userId;
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Indeks trigramow znormalizowanych emaili, przechowywany w tabeli user_email_trigrams.
+ * Wyszukiwanie fragmentu emaila zawezane jest do userow posiadajacych wszystkie trigramy fragmentu,
+ * zamiast przegladania calej tabeli users.
+ */
+
+@Component
+@RequiredArgsConstructor
+class UserEmailTrigramIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * zwraca rozne trigramy tekstu, pusty zbior dla tekstu krotszego niz trigram
+     *
+     * @param text znormalizowany tekst
+     * @return trigramy tekstu w kolejnosci wystapienia
+     */
+
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return trigrams;
+    }
+
+    /**
+     * zapisuje trigramy emaila usera, zastepujac poprzednie
+     *
+     * @param userId          ID usera
+     * @param emailNormalized znormalizowany email usera
+     */
+
+    void index(Long userId, String emailNormalized) {
+        remove(userId);
+        List<Object[]> rows = trigrams(emailNormalized).stream()
+                .map(trigram -> new Object[]{trigram, userId})
+                .toList();
+        jdbcTemplate.batchUpdate("insert into user_email_trigrams (trigram, user_id) values (?, ?)", rows);
+    }
+
+    /**
+     * usuwa trigramy emaila usera
+     *
+     * @param userId ID usera
+     */
+
+    void remove(Long userId) {
+        jdbcTemplate.update("delete from user_email_trigrams where user_id = ?", userId);
+    }
+
+}
@@ -55,22 +55,4 @@ class UserMapper {
         );
     }
 
-    /**
-     * Tworzy uproszczony DTO użytkownika z danymi ID, imię, nazwisko (bez e-maila).
-     *
-     * @param user Obiekt użytkownika
-     * @return Uproszczony obiekt DTO
-     */
-
-    UserListItemDto toListItemDto(User user) {
-        return new UserListItemDto(
-                user.getId(),
-                user.getFirstName(),
-                user.getLastName(),
-                null
-        );
-    }
-
-
-
 }
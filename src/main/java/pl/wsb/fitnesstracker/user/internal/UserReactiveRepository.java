@@ -0,0 +1,53 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Reactive queries reading users through R2DBC for the {@code /v2} API.
+ * Rows are mapped straight to {@link UserDto}, without entities and the persistence context.
+ */
+@Repository
+@RequiredArgsConstructor
+class UserReactiveRepository {
+
+    private static final String SELECT_USER = "select id, first_name, last_name, birthdate, email from users";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Streams all users ordered by ID. The rows are read from the database cursor as the subscriber requests them.
+     *
+     * @return stream of all users
+     */
+    Flux<UserDto> findAll() {
+        return databaseClient.sql(SELECT_USER + " order by id")
+                .map(UserReactiveRepository::toDto)
+                .all();
+    }
+
+    /**
+     * Reads the user with the given ID.
+     *
+     * @param id ID of the user
+     * @return the user or an empty {@link Mono} if there is no such user
+     */
+    Mono<UserDto> findById(long id) {
+        return databaseClient.sql(SELECT_USER + " where id = :id")
+                .bind("id", id)
+                .map(UserReactiveRepository::toDto)
+                .one();
+    }
+
+    private static UserDto toDto(Readable row) {
+        return new UserDto(row.get("id", Long.class), row.get("first_name", String.class), row.get("last_name", String.class),
+                row.get("birthdate", LocalDate.class), row.get("email", String.class));
+    }
+
+}
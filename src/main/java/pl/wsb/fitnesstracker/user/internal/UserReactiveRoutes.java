@@ -0,0 +1,36 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Reactive {@code /v2} read API of the users. Lists are streamed as NDJSON, one user per line,
+ * with the backpressure from the socket back to the database cursor.
+ */
+@Configuration
+class UserReactiveRoutes {
+
+    @Bean
+    RouterFunction<ServerResponse> userReactiveRouter(UserReactiveRepository repository) {
+        return RouterFunctions.route()
+                .GET("/v2/users", request -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .body(repository.findAll(), UserDto.class))
+                .GET("/v2/users/{id}", request -> repository.findById(Long.parseLong(request.pathVariable("id")))
+                        .flatMap(user -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(user))
+                        .switchIfEmpty(ServerResponse.notFound().build()))
+                .filter((request, next) -> {
+                    try {
+                        return next.handle(request);
+                    } catch (NumberFormatException e) {
+                        return ServerResponse.badRequest().build();
+                    }
+                })
+                .build();
+    }
+
+}
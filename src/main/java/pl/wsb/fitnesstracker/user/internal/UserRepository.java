@@ -1,23 +1,111 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserListItemDto;
 
-import java.util.Objects;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-interface UserRepository extends JpaRepository<User, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+interface UserRepository extends JpaRepository<User, Long>, UserSearchRepository {
 
     /**
-     * Query searching users by email address. It matches by exact match.
+     * Query searching users by email address. It matches case-insensitively, using the unique index on the normalized email.
      *
      * @param email email of the user to search
      * @return {@link Optional} containing found user or {@link Optional#empty()} if none matched
      */
     default Optional<User> findByEmail(String email) {
-        return findAll().stream()
-                .filter(user -> Objects.equals(user.getEmail(), email))
-                .findFirst();
+        return findByEmailNormalized(User.normalizeEmail(email));
     }
 
+    Optional<User> findByEmailNormalized(String emailNormalized);
+
+
+    /**
+     * Query searching users whose normalized email contains the fragment, using the trigram index:
+     * candidates are the users having all trigrams of the fragment, verified by the substring check.
+     *
+     * @param trigrams     distinct trigrams of the normalized fragment
+     * @param trigramCount number of the trigrams
+     * @param fragment     normalized fragment of the email
+     * @param limit        maximal number of users
+     * @return users ordered by ID
+     */
+    @Query("""
+            select u from User u
+            where u.id in (
+                select t.userId from UserEmailTrigram t
+                where t.trigram in :trigrams
+                group by t.userId
+                having count(t) = :trigramCount)
+            and locate(:fragment, u.emailNormalized) > 0
+            order by u.id
+            """)
+    List<User> findByEmailTrigrams(Collection<String> trigrams, long trigramCount, String fragment, Limit limit);
+
+    /**
+     * Query searching users whose normalized email contains the fragment by scanning the table,
+     * for fragments shorter than a trigram.
+     */
+    List<User> findByEmailNormalizedContainingOrderById(String fragment, Limit limit);
+
+    /**
+     * Query returning the first page of users born before the cutoff, ordered by (birthdate, id),
+     * read by the range scan of the birthdate index.
+     *
+     * @param cutoff exclusive upper bound of the birthdate
+     * @param limit  maximal number of users
+     * @return users ordered by birthdate and ID
+     */
+    @Query("select u from User u where u.birthdate < :cutoff order by u.birthdate, u.id")
+    List<User> findFirstPageBornBefore(LocalDate cutoff, Limit limit);
+
+    /**
+     * Query returning the page of users born before the cutoff, following the (birthdate, id) position of the previous page.
+     *
+     * @param cutoff    exclusive upper bound of the birthdate
+     * @param birthdate birthdate of the last user of the previous page
+     * @param id        ID of the last user of the previous page
+     * @param limit     maximal number of users
+     * @return users ordered by birthdate and ID
+     */
+    @Query("""
+            select u from User u
+            where u.birthdate < :cutoff
+            and u.birthdate >= :birthdate and (u.birthdate > :birthdate or u.id > :id)
+            order by u.birthdate, u.id
+            """)
+    List<User> findPageBornBeforeAfter(LocalDate cutoff, LocalDate birthdate, Long id, Limit limit);
+
+    long countByBirthdateBefore(LocalDate cutoff);
+
+    /**
+     * Stream of all users as the {@link UserListItemDto} projection (without email), ordered by ID.
+     * Only the needed columns are selected and no entities enter the persistence context;
+     * rows are fetched from the JDBC cursor in batches of {@code fetchSize}.
+     * The stream must be consumed and closed within a transaction.
+     *
+     * @return stream of all users
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new pl.wsb.fitnesstracker.user.api.UserListItemDto(u.id, u.firstName, u.lastName)
+            from User u
+            order by u.id""")
+    Stream<UserListItemDto> streamAllListItems();
+
 }
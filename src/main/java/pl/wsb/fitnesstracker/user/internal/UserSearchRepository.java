@@ -0,0 +1,22 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.List;
+
+interface UserSearchRepository {
+
+    /**
+     * Query returning the requested page of users matching the specification with a single SELECT,
+     * without the count query issued by {@code JpaSpecificationExecutor#findAll(Specification, Pageable)}.
+     * Users are ordered by the requested sort and then by ascending id, unless the sort already contains the id.
+     *
+     * @param specification conditions of the users to search
+     * @param pageable      page (offset and size) and sort of the users
+     * @return users of the requested page
+     */
+    List<User> search(Specification<User> specification, Pageable pageable);
+
+}
@@ -0,0 +1,48 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<User> search(Specification<User> specification, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<User> criteria = builder.createQuery(User.class);
+        Root<User> root = criteria.from(User.class);
+        Predicate predicate = specification.toPredicate(root, criteria, builder);
+        if (predicate != null) {
+            criteria.where(predicate);
+        }
+        List<Order> orders = new ArrayList<>(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        if (pageable.getSort().getOrderFor("id") == null) {
+            // ties of the requested sort are broken by id, so consecutive pages neither skip nor repeat users
+            orders.add(builder.asc(root.get("id")));
+        }
+        criteria.orderBy(orders);
+
+        TypedQuery<User> query = entityManager.createQuery(criteria);
+        if (pageable.isPaged()) {
+            query.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+
+}
@@ -1,24 +1,41 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import jakarta.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.pagination.api.CursorPage;
+import pl.wsb.fitnesstracker.pagination.api.InvalidCursorException;
+import pl.wsb.fitnesstracker.pagination.api.KeysetCursor;
 import pl.wsb.fitnesstracker.user.api.User;
 import pl.wsb.fitnesstracker.user.api.UserListItemDto;
 import pl.wsb.fitnesstracker.user.api.UserProvider;
 import pl.wsb.fitnesstracker.user.api.UserService;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 class UserServiceImpl implements UserService, UserProvider {
 
+    static final Set<String> SEARCH_SORT_PROPERTIES = Set.of("id", "firstName", "lastName", "email", "birthdate");
+
     private final UserRepository userRepository;
 
+    private final UserCache userCache;
+
     /**
      * Tworzy nowego użytkownika.
      *
@@ -51,7 +68,20 @@ class UserServiceImpl implements UserService, UserProvider {
 
 
     /**
-     * Pobiera użytkownika na podstawie adresu e-mail.
+     * Pobiera użytkowników o podanych ID jednym zapytaniem.
+     *
+     * @param userIds Identyfikatory użytkowników
+     * @return Lista znalezionych użytkowników (bez ID, które nie istnieją)
+     */
+
+    @Override
+    public List<User> getUsers(final Collection<Long> userIds) {
+        return userRepository.findAllById(userIds);
+    }
+
+
+    /**
+     * Pobiera użytkownika na podstawie adresu e-mail (bez rozróżniania wielkości liter).
      *
      * @param email Adres e-mail użytkownika
      * @return Obiekt optional z użytkownikiem lub pusty optional, jeśli użytkownik nie istnieje
@@ -76,25 +106,30 @@ class UserServiceImpl implements UserService, UserProvider {
 
     /**
      * Wyszukuje użytkowników na podstawie przekazanych kryteriów.
+     * Zapytanie zawiera warunki tylko dla podanych kryteriów, a strona wyników pobierana jest jednym zapytaniem.
      *
-     * @param firstName Imię użytkownika
-     * @param lastName  Nazwisko użytkownika
-     * @param email     Adres e-mail użytkownika
-     * @param birthdate Data urodzenia użytkownika
+     * @param firstName Imię użytkownika (bez rozróżniania wielkości liter) lub {@code null}
+     * @param lastName  Nazwisko użytkownika (bez rozróżniania wielkości liter) lub {@code null}
+     * @param email     Adres e-mail użytkownika (bez rozróżniania wielkości liter) lub {@code null}
+     * @param birthdate Data urodzenia użytkownika lub {@code null}
+     * @param pageable  Strona i sortowanie wyników
      * @return Lista użytkowników spełniających kryteria
+     * @throws BusinessException Jeśli sortowanie dotyczy nieobsługiwanego pola
      */
 
-    public List<User> searchUsers(String firstName, String lastName, String email, LocalDate birthdate) {
-        return userRepository.findAll().stream()
-                .filter(user -> firstName == null || user.getFirstName().equalsIgnoreCase(firstName))
-                .filter(user -> lastName == null || user.getLastName().equalsIgnoreCase(lastName))
-                .filter(user -> email == null || user.getEmail().equalsIgnoreCase(email))
-                .filter(user -> birthdate == null || user.getBirthdate().equals(birthdate))
-                .toList();
+    @Override
+    public List<User> searchUsers(@Nullable String firstName, @Nullable String lastName, @Nullable String email,
+                                  @Nullable LocalDate birthdate, Pageable pageable) {
+        pageable.getSort().forEach(order -> {
+            if (!SEARCH_SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new BusinessException("Sorting by %s is not supported".formatted(order.getProperty()));
+            }
+        });
+        return userRepository.search(UserSpecifications.matching(firstName, lastName, email, birthdate), pageable);
     }
 
     /**
-     * Usuwa użytkownika na podstawie ID.
+     * Usuwa użytkownika na podstawie ID i usuwa go z pamięci podręcznej.
      *
      * @param userId Identyfikator użytkownika do usunięcia
      */
@@ -102,10 +137,11 @@ class UserServiceImpl implements UserService, UserProvider {
     @Override
     public void deleteUser(Long userId) {
         userRepository.deleteById(userId);
+        userCache.invalidate(userId);
     }
 
     /**
-     * Aktualizuje dane użytkownika.
+     * Aktualizuje dane użytkownika i usuwa go z pamięci podręcznej.
      *
      * @param userId      Identyfikator użytkownika do zaktualizowania
      * @param updatedUser Obiekt zawierający zaktualizowane dane użytkownika
@@ -123,20 +159,33 @@ class UserServiceImpl implements UserService, UserProvider {
         user.setEmail(updatedUser.getEmail());
         user.setBirthdate(updatedUser.getBirthdate());
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.invalidate(userId);
+        return saved;
     }
 
     /**
      * Szuka użytkowników na podstawie fragmentu ich e-maila.
      * Porównanie ignoruje wielkość liter.
+     * Kandydaci wyszukiwani są w indeksie trigramów, fragmenty krótsze niż trigram wymagają przejrzenia tabeli.
      * @param email Część adresu e-mail, którego szukamy
+     * @param limit Maksymalna liczba użytkowników lub {@code null} bez ograniczenia
      * @return Lista użytkowników pasujących do podanego fragmentu
+     * @throws BusinessException Jeśli limit nie jest dodatni
      */
 
     @Override
-    public List<UserListItemDto> findUserByEmail(String email) {
-        return userRepository.findAll().stream()
-                .filter(user -> user.getEmail() != null && user.getEmail().toLowerCase().contains(email.toLowerCase()))
+    public List<UserListItemDto> findUserByEmail(String email, @Nullable Integer limit) {
+        if (limit != null && limit <= 0) {
+            throw new BusinessException("Limit must be positive");
+        }
+        String fragment = User.normalizeEmail(email);
+        Limit maxResults = limit == null ? Limit.unlimited() : Limit.of(limit);
+        Set<String> trigrams = UserEmailTrigramIndex.trigrams(fragment);
+        List<User> users = trigrams.isEmpty()
+                ? userRepository.findByEmailNormalizedContainingOrderById(fragment, maxResults)
+                : userRepository.findByEmailTrigrams(trigrams, trigrams.size(), fragment, maxResults);
+        return users.stream()
                 .map(user -> new UserListItemDto(
                         user.getId(),
                         user.getFirstName(),
@@ -147,17 +196,39 @@ class UserServiceImpl implements UserService, UserProvider {
     }
 
     /**
-     * Pobiera wszystkich użytkowników, którzy urodzili się przed podaną datą.
+     * Pobiera stronę użytkowników, którzy urodzili się przed podaną datą.
+     * Strona czytana jest zakresem indeksu (birthdate, id), więc koszt nie zależy od liczby pasujących użytkowników.
      *
      * @param birthdate Data graniczna
-     * @return Lista użytkowników starszych od określonej daty
+     * @param cursor    Token kolejnej strony lub {@code null} dla pierwszej strony
+     * @param limit     Maksymalna liczba użytkowników na stronie
+     * @return Strona użytkowników starszych od określonej daty
+     * @throws InvalidCursorException Jeśli token lub limit są niepoprawne
      */
 
     @Override
-    public List<User> findUsersOlderThan(LocalDate birthdate) {
-        return userRepository.findAll().stream()
-                .filter(user -> user.getBirthdate().isBefore(birthdate))
-                .toList();
+    public CursorPage<User> findUsersOlderThan(LocalDate birthdate, @Nullable String cursor, int limit) {
+        Limit fetchLimit = Limit.of(CursorPage.validateLimit(limit) + 1);
+        List<User> rows;
+        if (cursor == null) {
+            rows = userRepository.findFirstPageBornBefore(birthdate, fetchLimit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = userRepository.findPageBornBeforeAfter(birthdate, toBirthdate(position), position.id(), fetchLimit);
+        }
+        return CursorPage.of(rows, limit, UserServiceImpl::toCursor);
+    }
+
+    /**
+     * Zlicza użytkowników, którzy urodzili się przed podaną datą.
+     *
+     * @param birthdate Data graniczna
+     * @return Liczba użytkowników starszych od określonej daty
+     */
+
+    @Override
+    public long countUsersOlderThan(LocalDate birthdate) {
+        return userRepository.countByBirthdateBefore(birthdate);
     }
 
     /**
@@ -167,10 +238,37 @@ class UserServiceImpl implements UserService, UserProvider {
      */
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserListItemDto> findAllSimpleUsers() {
-        return userRepository.findAll().stream()
-                .map(user -> new UserListItemDto(user.getId(), user.getFirstName(), user.getLastName(), null))
-                .toList();
+        try (Stream<UserListItemDto> users = userRepository.streamAllListItems()) {
+            return users.toList();
+        }
+    }
+
+    /**
+     * Przekazuje uproszczone DTO wszystkich użytkowników do podanego konsumenta, czytając je strumieniowo z projekcji.
+     *
+     * @param consumer Konsument otrzymujący kolejne uproszczone DTO użytkowników
+     */
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachSimpleUser(Consumer<UserListItemDto> consumer) {
+        try (Stream<UserListItemDto> users = userRepository.streamAllListItems()) {
+            users.forEach(consumer);
+        }
+    }
+
+    private static KeysetCursor toCursor(User user) {
+        return new KeysetCursor(user.getBirthdate().toString(), user.getId());
+    }
+
+    private static LocalDate toBirthdate(KeysetCursor cursor) {
+        try {
+            return LocalDate.parse(cursor.sortKey());
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor.encode());
+        }
     }
 
-}
\ No newline at end of file
+}
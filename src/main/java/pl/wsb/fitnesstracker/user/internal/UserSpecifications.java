@@ -0,0 +1,33 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.annotation.Nullable;
+import org.springframework.data.jpa.domain.Specification;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+
+/**
+ * Warunki wyszukiwania userow; parametr {@code null} oznacza brak warunku,
+ * wiec zapytanie zawiera tylko predykaty dla podanych kryteriow.
+ * Imie, nazwisko i email porownywane sa po znormalizowanych, indeksowanych kolumnach.
+ */
+
+final class UserSpecifications {
+
+    private UserSpecifications() {
+    }
+
+    static Specification<User> matching(@Nullable String firstName, @Nullable String lastName,
+                                        @Nullable String email, @Nullable LocalDate birthdate) {
+        return Specification.where(attributeEquals("firstNameNormalized", User.normalizeName(firstName)))
+                .and(attributeEquals("lastNameNormalized", User.normalizeName(lastName)))
+                .and(attributeEquals("emailNormalized", User.normalizeEmail(email)))
+                .and(attributeEquals("birthdate", birthdate));
+    }
+
+    @Nullable
+    private static Specification<User> attributeEquals(String attribute, @Nullable Object value) {
+        return value == null ? null : (root, query, builder) -> builder.equal(root.get(attribute), value);
+    }
+
+}
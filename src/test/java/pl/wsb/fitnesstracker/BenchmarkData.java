@@ -0,0 +1,115 @@
+package pl.wsb.fitnesstracker;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.training.internal.TrainingRollupService;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk data for the benchmarks, written by JDBC batches as saving that many entities one by one
+ * through the repositories would dominate the benchmark run time.
+ */
+public final class BenchmarkData {
+
+    /**
+     * Birthdates of the inserted users cycle through {@link #BIRTHDATE_DAYS} days starting at this date.
+     */
+    public static final LocalDate FIRST_BIRTHDATE = LocalDate.of(1950, 1, 1);
+    public static final int BIRTHDATE_DAYS = 20_000;
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final int DELETE_BATCH_SIZE = 50_000;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Inserts users with the IDs from {@code firstId} to {@code lastId} (both inclusive).
+     * The user with ID {@code i} has the email {@link #email(int) email(i)}.
+     */
+    public static void insertUsers(JdbcTemplate jdbcTemplate, int firstId, int lastId) {
+        for (int batchStart = firstId; batchStart <= lastId; batchStart += INSERT_BATCH_SIZE) {
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (int id = batchStart; id <= Math.min(batchStart + INSERT_BATCH_SIZE - 1, lastId); id++) {
+                rows.add(new Object[]{id, "First" + id, "first" + id, "Last" + id, "last" + id,
+                        Date.valueOf(FIRST_BIRTHDATE.plusDays(id % BIRTHDATE_DAYS)), email(id), email(id)});
+            }
+            jdbcTemplate.batchUpdate("""
+                    insert into users (id, first_name, first_name_normalized, last_name, last_name_normalized, birthdate, email, email_normalized)
+                    values (?, ?, ?, ?, ?, ?, ?, ?)
+                    """, rows);
+        }
+    }
+
+    /**
+     * Returns the (already normalized) email of the user with the given ID inserted by {@link #insertUsers}.
+     */
+    public static String email(int id) {
+        return "user.%d@domain.com".formatted(id);
+    }
+
+    /**
+     * Inserts the users {@code 1..users} by {@link #insertUsers}, each with {@code trainingsPerUser} daily trainings.
+     */
+    public static void insertTrainings(JdbcTemplate jdbcTemplate, int users, int trainingsPerUser) {
+        insertUsers(jdbcTemplate, 1, users);
+
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH_SIZE);
+        Instant firstStart = Instant.parse("2024-01-01T08:00:00Z");
+        for (int user = 1; user <= users; user++) {
+            for (int i = 0; i < trainingsPerUser; i++) {
+                Instant start = firstStart.plus(Duration.ofDays(i));
+                rows.add(new Object[]{user, Timestamp.from(start), Timestamp.from(start.plus(Duration.ofHours(1))),
+                        i % 5, 10.0, 8.0});
+                if (rows.size() == INSERT_BATCH_SIZE) {
+                    insertTrainingRows(jdbcTemplate, rows);
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            insertTrainingRows(jdbcTemplate, rows);
+        }
+    }
+
+    /**
+     * Fills the email trigram index, the per-user statistics and the daily training rollups of the users
+     * {@code 1..users} from the inserted rows, as the listeners and the services would have maintained them
+     * had the rows been created through the API.
+     */
+    public static void insertDerivedRows(JdbcTemplate jdbcTemplate, TrainingRollupService trainingRollupService, int users) {
+        jdbcTemplate.update("""
+                insert into user_email_trigrams (trigram, user_id)
+                select distinct substring(u.email_normalized, r.x, 3), u.id
+                from users u join system_range(1, 320) r on r.x <= length(u.email_normalized) - 2
+                """);
+        jdbcTemplate.update("""
+                insert into statistics (user_id, total_trainings, total_distance, total_calories_burned)
+                select user_id, count(*), sum(distance), 0 from trainings group by user_id
+                """);
+        trainingRollupService.rebuildRollups(1, users);
+    }
+
+    /**
+     * Deletes all users. Much faster than deleting the users one by one by the repository in {@link IntegrationTestBase},
+     * and done in chunks as a single delete of 1M indexed rows exhausts the H2 undo log.
+     */
+    public static void deleteUsers(JdbcTemplate jdbcTemplate) {
+        while (jdbcTemplate.update("delete from users limit " + DELETE_BATCH_SIZE) > 0) {
+        }
+    }
+
+    private static void insertTrainingRows(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("""
+                insert into trainings (id, user_id, start_time, end_time, activity_type, distance, average_speed)
+                values (next value for trainings_seq, ?, ?, ?, ?, ?, ?)
+                """, rows);
+        rows.clear();
+    }
+
+}
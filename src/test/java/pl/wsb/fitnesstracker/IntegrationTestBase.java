@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
 import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.user.api.User;
 
@@ -21,6 +22,9 @@ public abstract class IntegrationTestBase {
     @Autowired
     private JpaRepository<Training, Long> trainingRepository;
 
+    @Autowired
+    private JpaRepository<Statistics, Long> statisticsRepository;
+
     @AfterEach
     void cleanUp() {
         cleanDatabase();
@@ -28,6 +32,7 @@ public abstract class IntegrationTestBase {
     }
 
     private void cleanDatabase() {
+        statisticsRepository.deleteAll();
         trainingRepository.deleteAll();
         userRepository.deleteAll();
     }
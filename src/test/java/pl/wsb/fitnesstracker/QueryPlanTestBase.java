@@ -0,0 +1,75 @@
+package pl.wsb.fitnesstracker;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Base class for query-plan regression tests. A repository query is executed once, the SQL Hibernate generated
+ * for it is captured and explained by H2, and the access path H2 picked for the table is checked against the expected
+ * index. A full scan shows up either as {@code tableScan} or as the primary key without a condition, so both fail.
+ * H2 does not require parameter values for a plain {@code EXPLAIN}, so the captured SQL is explained as is.
+ */
+@TestPropertySource(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=pl.wsb.fitnesstracker.CapturingStatementInspector")
+public abstract class QueryPlanTestBase extends IntegrationTestBase {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Asserts that the statement issued by {@code query} reads {@code table} through {@code index}, either seeking
+     * it or scanning it in index order.
+     *
+     * @param table name of the table the statement selects from
+     * @param index name of the index the plan is expected to use
+     * @param query repository call issuing exactly one statement against the table
+     */
+    protected void assertUsesIndex(String table, String index, Runnable query) {
+        assertThat(accessPath(table, query))
+                .as("access path of %s", table)
+                .matches("(?s)PUBLIC\\." + index.toUpperCase(Locale.ROOT) + "(:.*)?");
+    }
+
+    /**
+     * Asserts that the statement issued by {@code query} seeks {@code table} by an index condition on
+     * {@code column}. Used where more than one index starts with the column, e.g. the index H2 adds for
+     * a foreign key next to a composite index sharing its first column.
+     *
+     * @param table  name of the table the statement selects from
+     * @param column column the index seek is expected to start with
+     * @param query  repository call issuing exactly one statement against the table
+     */
+    protected void assertSeeksBy(String table, String column, Runnable query) {
+        assertThat(accessPath(table, query))
+                .as("access path of %s", table)
+                .matches("(?s)PUBLIC\\.\\w+: " + column.toUpperCase(Locale.ROOT) + "\\b.*");
+    }
+
+    private String accessPath(String table, Runnable query) {
+        String plan = explain(table, query);
+        Matcher matcher = Pattern.compile("\"PUBLIC\"\\.\"" + table.toUpperCase(Locale.ROOT) + "\" \"\\w+\"\\s+/\\* (.+?) \\*/", Pattern.DOTALL)
+                .matcher(plan);
+        assertThat(matcher.find()).as("plan of a query on %s:%n%s", table, plan).isTrue();
+        return matcher.group(1);
+    }
+
+    private String explain(String table, Runnable query) {
+        CapturingStatementInspector.clear();
+        query.run();
+        List<String> statements = CapturingStatementInspector.statements().stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).startsWith("select"))
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).contains(" " + table.toLowerCase(Locale.ROOT) + " "))
+                .toList();
+        assertThat(statements).as("select statements on %s", table).hasSize(1);
+        return jdbcTemplate.queryForObject("explain " + statements.get(0), String.class);
+    }
+
+}
@@ -0,0 +1,195 @@
+package pl.wsb.fitnesstracker;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.FitnessTracker;
+import pl.wsb.fitnesstracker.training.internal.TrainingRollupService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures every read endpoint of the MVC API, and so the repository queries behind them, at growing data set sizes.
+ * For each scale a fresh application context is seeded with {@code scale} trainings of {@code scale / 10} users
+ * and each endpoint is called sequentially, recording the p50, p99 and max latency and the number of SQL statements
+ * Hibernate prepared per call. The results of all scales are written as CSV to {@code target/repository-scale-report.csv}.
+ * <p>
+ * The second-level cache, the query cache and the user cache are disabled by default, so every sample reads
+ * the database instead of repeating the cache hit of the warm-up call. {@code -Dbenchmark.caches=true} keeps them
+ * enabled to measure the cached read paths; the cache mode is reported in its own CSV column.
+ * <p>
+ * Scales default to 10k, 100k, 1M and 10M trainings and can be narrowed with {@code -Dbenchmark.scales=10000,100000}.
+ * The largest scales need a bigger heap for the in-memory database, e.g. {@code -DargLine=-Xmx12g}.
+ */
+@BenchmarkTest
+@Slf4j
+class RepositoryScaleBenchmark {
+
+    private static final String DEFAULT_SCALES = "10000,100000,1000000,10000000";
+    private static final int TRAININGS_PER_USER = 10;
+    private static final int MAX_SAMPLES = 50;
+    private static final Duration PATH_BUDGET = Duration.ofSeconds(15);
+    private static final Path REPORT = Path.of("target", "repository-scale-report.csv");
+    private static final boolean CACHES = Boolean.getBoolean("benchmark.caches");
+    private static final List<String> CACHES_DISABLED = List.of(
+            "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+            "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+            "--user.cache.maximum-size=0");
+
+    @Test
+    void shouldReportLatencyAndStatementsOfReadPathsAtEachScale() {
+        List<PathResult> results = new ArrayList<>();
+        for (String scale : System.getProperty("benchmark.scales", DEFAULT_SCALES).split(",")) {
+            results.addAll(run(Integer.parseInt(scale.trim())));
+        }
+        writeReport(results);
+        assertThat(results).allSatisfy(result -> assertThat(result.failed()).as(result.path()).isZero());
+    }
+
+    private static List<PathResult> run(int scale) {
+        int users = Math.max(1, scale / TRAININGS_PER_USER);
+        SpringApplicationBuilder application = new SpringApplicationBuilder(FitnessTracker.class)
+                .properties("logging.level.root=WARN", "logging.level." + RepositoryScaleBenchmark.class.getName() + "=INFO");
+        // argumenty wygrywaja z testowym application.yml
+        List<String> args = new ArrayList<>(List.of("--server.port=0", "--spring.datasource.url=jdbc:h2:mem:scale-" + scale));
+        if (!CACHES) {
+            args.addAll(CACHES_DISABLED);
+        }
+        try (ConfigurableApplicationContext context = application.run(args.toArray(String[]::new))) {
+            long seedStart = System.nanoTime();
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            BenchmarkData.insertTrainings(jdbcTemplate, users, TRAININGS_PER_USER);
+            BenchmarkData.insertDerivedRows(jdbcTemplate, context.getBean(TrainingRollupService.class), users);
+            log.info("Seeded {} trainings of {} users in {} s", scale, users,
+                    Duration.ofNanos(System.nanoTime() - seedStart).toSeconds());
+
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+            List<PathResult> results = new ArrayList<>();
+            for (String path : readPaths(users / 2 + 1)) {
+                PathResult result = measure(client, statistics, scale, "http://localhost:" + port + path, path);
+                log.info("{}", result);
+                results.add(result);
+            }
+            return results;
+        }
+    }
+
+    private static List<String> readPaths(int userId) {
+        return List.of(
+                "/v1/users",
+                "/v1/users/basic",
+                "/v1/users/simple",
+                "/v1/users/" + userId,
+                "/v1/users/search?lastName=Last" + userId,
+                "/v1/users/search?email=user." + userId + "@domain.com&sort=lastName",
+                "/v1/users/email?email=user." + userId + "@&limit=10",
+                "/v1/users/older/1990-01-01?limit=20",
+                "/v1/users/older/1990-01-01?countOnly=true",
+                "/v1/trainings?limit=20",
+                "/v1/trainings/" + userId + "?limit=20",
+                "/v1/trainings/" + userId + "/summary?from=2024-01-01&to=2024-12-31&granularity=week",
+                "/v1/trainings/finished/2024-01-09",
+                "/v1/trainings/activityType?activityType=RUNNING",
+                "/v1/trainings/export",
+                "/v1/statistics/user/" + userId
+        );
+    }
+
+    /**
+     * After one warm-up call, the path is called until {@value #MAX_SAMPLES} samples are taken or the time budget
+     * is spent, so the full-table paths are still measured at least once at the largest scales.
+     */
+    private static PathResult measure(HttpClient client, Statistics statistics, int scale, String url, String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMinutes(30))
+                .GET()
+                .build();
+        send(client, request);
+
+        long[] latencies = new long[MAX_SAMPLES];
+        int samples = 0;
+        int failed = 0;
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long deadline = System.nanoTime() + PATH_BUDGET.toNanos();
+        do {
+            long start = System.nanoTime();
+            int status = send(client, request);
+            latencies[samples++] = System.nanoTime() - start;
+            if (status != 200) {
+                failed++;
+            }
+        } while (samples < MAX_SAMPLES && System.nanoTime() < deadline);
+        double statementsPerCall = (double) (statistics.getPrepareStatementCount() - statementsBefore) / samples;
+
+        long[] sorted = Arrays.copyOf(latencies, samples);
+        Arrays.sort(sorted);
+        return new PathResult(scale, path, samples, failed, millis(percentile(sorted, 0.5)), millis(percentile(sorted, 0.99)),
+                millis(sorted[samples - 1]), statementsPerCall);
+    }
+
+    private static int send(HttpClient client, HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static void writeReport(List<PathResult> results) {
+        List<String> lines = new ArrayList<>();
+        lines.add("caches,scale,path,samples,failed,p50_ms,p99_ms,max_ms,statements_per_call");
+        for (PathResult result : results) {
+            lines.add(String.format(Locale.ROOT, "%s,%d,\"%s\",%d,%d,%.3f,%.3f,%.3f,%.2f", CACHES ? "enabled" : "disabled",
+                    result.scale(), result.path(), result.samples(), result.failed(), result.p50Millis(), result.p99Millis(),
+                    result.maxMillis(), result.statementsPerCall()));
+        }
+        try {
+            Files.createDirectories(REPORT.getParent());
+            Files.write(REPORT, lines);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Report written to {}:\n{}", REPORT.toAbsolutePath(), String.join("\n", lines));
+    }
+
+    private record PathResult(int scale, String path, int samples, int failed, double p50Millis, double p99Millis,
+                              double maxMillis, double statementsPerCall) {
+
+    }
+
+}
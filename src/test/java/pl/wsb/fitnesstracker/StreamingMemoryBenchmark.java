@@ -0,0 +1,126 @@
+package pl.wsb.fitnesstracker;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.FitnessTracker;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the memory and the threads held per concurrent connection by the MVC export ({@code /v1/trainings/export})
+ * and by the reactive stream ({@code /v2/trainings}). Each of {@value #CONNECTIONS} clients requests the full
+ * trainings stream and never reads the response, so every response stays in flight, throttled by the TCP window.
+ * Each stack runs in its own application context with its own in-memory database.
+ */
+@BenchmarkTest
+@Slf4j
+class StreamingMemoryBenchmark {
+
+    private static final int CONNECTIONS = 150;
+    private static final int USERS = 1_000;
+    private static final int TRAININGS_PER_USER = 20;
+    private static final Duration SETTLE = Duration.ofSeconds(10);
+
+    @Test
+    void shouldHoldLessMemoryPerConnectionOnReactiveStack() throws IOException {
+        Result mvc = run("mvc", "/v1/trainings/export");
+        log.info("MVC: {}", mvc);
+        Result reactive = run("reactive", "/v2/trainings");
+        log.info("Reactive: {}", reactive);
+        log.info("{} connections: MVC {} KiB heap and {} threads per connection; reactive {} KiB heap and {} threads per connection",
+                CONNECTIONS, mvc.heapPerConnectionKib(), mvc.threadsPerConnection(),
+                reactive.heapPerConnectionKib(), reactive.threadsPerConnection());
+        assertThat(reactive.threadsPerConnection()).isLessThanOrEqualTo(mvc.threadsPerConnection());
+    }
+
+    private static Result run(String stack, String path) throws IOException {
+        int reactivePort = freePort();
+        SpringApplicationBuilder application = new SpringApplicationBuilder(FitnessTracker.class)
+                .properties("logging.level.root=WARN", "logging.level." + StreamingMemoryBenchmark.class.getName() + "=INFO");
+        // argumenty wygrywaja z testowym application.yml, ktory ustawia losowy port reaktywnego API
+        try (ConfigurableApplicationContext context = application.run("--server.port=0", "--reactive.port=" + reactivePort,
+                "--spring.datasource.url=jdbc:h2:mem:streaming-" + stack)) {
+            BenchmarkData.insertTrainings(context.getBean(JdbcTemplate.class), USERS, TRAININGS_PER_USER);
+            int port = stack.equals("mvc") ? ((WebServerApplicationContext) context).getWebServer().getPort() : reactivePort;
+
+            Snapshot before = Snapshot.take();
+            List<Socket> sockets = new ArrayList<>(CONNECTIONS);
+            try {
+                for (int i = 0; i < CONNECTIONS; i++) {
+                    sockets.add(openStalledStream(port, path));
+                }
+                sleep(SETTLE);
+                Snapshot during = Snapshot.take();
+                return new Result(CONNECTIONS, (during.heapBytes() - before.heapBytes()) / CONNECTIONS / 1024,
+                        (double) (during.threads() - before.threads()) / CONNECTIONS);
+            } finally {
+                for (Socket socket : sockets) {
+                    socket.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the request and leaves the response unread; a small receive buffer makes the server hit backpressure early.
+     */
+    private static Socket openStalledStream(int port, String path) throws IOException {
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(4 * 1024);
+        socket.connect(new InetSocketAddress("localhost", port));
+        OutputStream out = socket.getOutputStream();
+        out.write("GET %s HTTP/1.1\r\nHost: localhost\r\nAccept: application/x-ndjson\r\n\r\n".formatted(path)
+                .getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Snapshot(long heapBytes, int threads) {
+
+        static Snapshot take() {
+            System.gc();
+            System.gc();
+            return new Snapshot(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+                    ManagementFactory.getThreadMXBean().getThreadCount());
+        }
+
+    }
+
+    private record Result(int connections, long heapPerConnectionKib, double threadsPerConnection) {
+
+    }
+
+}
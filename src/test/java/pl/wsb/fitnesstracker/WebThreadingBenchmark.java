@@ -0,0 +1,136 @@
+package pl.wsb.fitnesstracker;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.FitnessTracker;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the throughput and the p99 latency of the web tier running on the Tomcat platform thread pool
+ * and on virtual threads (the {@code virtual-threads} profile), with {@value #CLIENTS} concurrent clients
+ * reading trainings pages from H2. Each mode runs in its own application context with its own in-memory database.
+ * The virtual-thread half requires Java 21 (build with {@code -Pjava21}) and is skipped on older runtimes.
+ */
+@BenchmarkTest
+@Slf4j
+class WebThreadingBenchmark {
+
+    private static final int CLIENTS = 1_000;
+    private static final int USERS = 1_000;
+    private static final int TRAININGS_PER_USER = 20;
+    private static final Duration WARM_UP = Duration.ofSeconds(10);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(30);
+
+    @Test
+    void shouldServeConcurrentClientsOnPlatformAndVirtualThreads() {
+        Result platform = run("platform");
+        log.info("Platform threads: {}", platform);
+        assertThat(platform.failed()).isZero();
+
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads require Java 21");
+        Result virtual = run("virtual-threads");
+        log.info("Virtual threads: {}", virtual);
+        log.info("{} clients: platform {} req/s, p99 {} ms; virtual {} req/s, p99 {} ms", CLIENTS,
+                platform.throughput(), platform.p99Millis(), virtual.throughput(), virtual.p99Millis());
+        assertThat(virtual.failed()).isZero();
+    }
+
+    private static Result run(String mode) {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(FitnessTracker.class)
+                .properties("server.port=0", "spring.datasource.url=jdbc:h2:mem:threading-" + mode,
+                        "logging.level.root=WARN", "logging.level." + WebThreadingBenchmark.class.getName() + "=INFO");
+        if (mode.equals("virtual-threads")) {
+            application.profiles(mode);
+        }
+        try (ConfigurableApplicationContext context = application.run()) {
+            BenchmarkData.insertTrainings(context.getBean(JdbcTemplate.class), USERS, TRAININGS_PER_USER);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            load(client, port, WARM_UP);
+            return load(client, port, MEASUREMENT);
+        }
+    }
+
+    /**
+     * Every client sends its next request as soon as the previous one completes, until the end of the measurement.
+     */
+    private static Result load(HttpClient client, int port, Duration duration) {
+        Recorder recorder = new Recorder();
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<CompletableFuture<Void>> clients = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            sendUntil(client, port, deadline, recorder, done);
+            clients.add(done);
+        }
+        CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).join();
+        return recorder.result(duration);
+    }
+
+    private static void sendUntil(HttpClient client, int port, long deadline, Recorder recorder, CompletableFuture<Void> done) {
+        long userId = ThreadLocalRandom.current().nextLong(1, USERS + 1);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:%d/v1/trainings/%d?limit=20".formatted(port, userId)))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            recorder.record(System.nanoTime() - start, error == null && response.statusCode() == 200);
+            if (System.nanoTime() < deadline) {
+                sendUntil(client, port, deadline, recorder, done);
+            } else {
+                done.complete(null);
+            }
+        });
+    }
+
+    private static class Recorder {
+
+        private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final LongAdder failed = new LongAdder();
+
+        void record(long latencyNanos, boolean succeeded) {
+            latencies.add(latencyNanos);
+            if (!succeeded) {
+                failed.increment();
+            }
+        }
+
+        Result result(Duration duration) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            long p99 = sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * 0.99))];
+            return new Result(sorted.length, failed.sum(), sorted.length / Math.max(1, duration.toSeconds()),
+                    Duration.ofNanos(p99).toMillis());
+        }
+
+    }
+
+    private record Result(long requests, long failed, long throughput, long p99Millis) {
+
+    }
+
+}
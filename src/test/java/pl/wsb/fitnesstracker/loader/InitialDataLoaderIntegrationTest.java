@@ -0,0 +1,57 @@
+package pl.wsb.fitnesstracker.loader;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.TrainingRollupService;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+class InitialDataLoaderIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private JpaRepository<User, Long> userRepository;
+
+    @Autowired
+    private JpaRepository<Training, Long> trainingRepository;
+
+    @Autowired
+    private TrainingRollupService trainingRollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // rollupy nie sa sprzatane przez klase bazowa
+    @AfterEach
+    void deleteRollups() {
+        jdbcTemplate.update("delete from training_daily_rollup");
+    }
+
+    @Test
+    void shouldRollUpLoadedTrainings() {
+        InitialDataLoader loader = new InitialDataLoader(userRepository, trainingRepository, trainingRollupService);
+
+        transactionTemplate.executeWithoutResult(status -> loader.loadInitialData(null));
+
+        long trainings = jdbcTemplate.queryForObject("select count(*) from trainings", Long.class);
+        assertThat(trainings).isPositive();
+        // inne testy zostawiaja rollupy usunietych juz uzytkownikow
+        assertThat(jdbcTemplate.queryForObject("select sum(session_count) from training_daily_rollup where user_id in (select id from users)",
+                Long.class)).isEqualTo(trainings);
+        assertThat(jdbcTemplate.queryForObject("select sum(distance_sum) from training_daily_rollup where user_id in (select id from users)",
+                Double.class))
+                .isEqualTo(jdbcTemplate.queryForObject("select sum(distance) from trainings", Double.class));
+    }
+
+}
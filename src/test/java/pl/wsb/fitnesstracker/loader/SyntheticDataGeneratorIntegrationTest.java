@@ -0,0 +1,145 @@
+package pl.wsb.fitnesstracker.loader;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.loader.SyntheticDataProperties.TrainingsDistribution;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.training.internal.TrainingRollupService;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserListItemDto;
+import pl.wsb.fitnesstracker.user.api.UserService;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@IntegrationTest
+class SyntheticDataGeneratorIntegrationTest extends IntegrationTestBase {
+
+    private static final int USERS = 300;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TrainingRollupService trainingRollupService;
+
+    @Autowired
+    private UserService userService;
+
+    // rollupy nie sa sprzatane przez klase bazowa
+    @AfterEach
+    void deleteRollups() {
+        jdbcTemplate.update("delete from training_daily_rollup");
+    }
+
+    @Test
+    void shouldGenerateConfiguredUsersAndTrainings() {
+        long trainings = generator(7).generate();
+
+        assertThat(count("select count(*) from users")).isEqualTo(USERS);
+        assertThat(count("select count(*) from trainings")).isEqualTo(trainings).isPositive();
+        assertThat(jdbcTemplate.queryForList("select distinct activity_type from trainings order by 1", Integer.class))
+                .containsExactly(ActivityType.RUNNING.ordinal(), ActivityType.CYCLING.ordinal());
+        assertThat(count("select count(*) from trainings where start_time < '2024-01-01' or end_time >= '2024-03-02'")).isZero();
+        assertThat(count("select max(c) from (select count(*) c from trainings group by user_id)")).isLessThanOrEqualTo(40);
+    }
+
+    @Test
+    void shouldDeriveStatisticsRollupsAndEmailIndex_whenGenerating() {
+        long trainings = generator(7).generate();
+
+        assertThat(count("select sum(total_trainings) from statistics")).isEqualTo(trainings);
+        assertThat(count("select sum(session_count) from training_daily_rollup")).isEqualTo(trainings);
+        String email = jdbcTemplate.queryForObject("select email from users where id = 42", String.class);
+        assertThat(userService.findUserByEmail(email.substring(0, email.indexOf('@')), null))
+                .extracting(UserListItemDto::getId)
+                .containsExactly(42L);
+    }
+
+    @Test
+    void shouldGenerateSameRows_whenGeneratingWithSameSeedAgain() {
+        generator(7).generate();
+        List<Map<String, Object>> users = users();
+        List<Map<String, Object>> trainings = trainings();
+
+        cleanUp();
+        generator(7).generate();
+
+        assertThat(users()).isEqualTo(users);
+        assertThat(trainings()).isEqualTo(trainings);
+    }
+
+    @Test
+    void shouldGenerateDifferentRows_whenSeedDiffers() {
+        generator(7).generate();
+        List<Map<String, Object>> trainings = trainings();
+
+        cleanUp();
+        generator(8).generate();
+
+        assertThat(trainings()).isNotEqualTo(trainings);
+    }
+
+    @Test
+    void shouldAssignFreshIdsToEntitiesSavedAfterGenerating() {
+        long trainings = generator(7).generate();
+
+        User user = existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 5, 1), "emma.johnson@domain.com"));
+        persistTraining(new Training(user, new Date(), new Date(), ActivityType.RUNNING, 10.5, 8.2));
+
+        assertThat(user.getId()).isGreaterThan(USERS);
+        assertThat(count("select count(*) from trainings")).isEqualTo(trainings + 1);
+    }
+
+    @Test
+    void shouldRejectGenerating_whenDatabaseContainsUsers() {
+        existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 5, 1), "emma.johnson@domain.com"));
+
+        assertThatThrownBy(() -> generator(7).generate())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("empty database");
+    }
+
+    private SyntheticDataGenerator generator(long seed) {
+        // male porcje przetwarzane rownolegle, zeby kolejnosc ich zakonczenia byla przypadkowa
+        SyntheticDataProperties properties = new SyntheticDataProperties(seed, USERS, 5, 40, TrainingsDistribution.EXPONENTIAL,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1),
+                Map.of(ActivityType.RUNNING, 3, ActivityType.CYCLING, 1), 32, 3);
+        return new SyntheticDataGenerator(jdbcTemplate, entityManagerFactory, trainingRollupService, properties);
+    }
+
+    private void cleanUp() {
+        deleteRollups();
+        setUp();
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private List<Map<String, Object>> users() {
+        return jdbcTemplate.queryForList("select id, first_name, last_name, birthdate, email from users order by id");
+    }
+
+    // identyfikatory treningow kontynuuja sekwencje, wiec porownywana jest tylko ich kolejnosc
+    private List<Map<String, Object>> trainings() {
+        return jdbcTemplate.queryForList("""
+                select user_id, start_time, end_time, activity_type, distance, average_speed from trainings order by id
+                """);
+    }
+
+}
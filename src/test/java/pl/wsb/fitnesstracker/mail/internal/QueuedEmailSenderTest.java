@@ -0,0 +1,143 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+class QueuedEmailSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ThreadFactory threadFactory = new CustomizableThreadFactory("mail-sender-");
+
+    private QueuedEmailSender emailSender;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (emailSender != null) {
+            emailSender.stop();
+        }
+    }
+
+    @Test
+    void shouldDeliverAllQueuedEmails_whenSendingManyEmails() throws Exception {
+        emailSender = new QueuedEmailSender(smtpMailSender(), properties(100, Duration.ofSeconds(5), 3, 1, 100), meterRegistry, threadFactory);
+        emailSender.start();
+
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            deliveries.add(emailSender.send(new EmailDto("user%d@domain.com".formatted(i), "Report " + i, "Content " + i)));
+        }
+
+        CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        assertThat(greenMail.getReceivedMessages()).hasSize(60);
+        assertThat(greenMail.getReceivedMessages()[0].getFrom()[0].toString()).isEqualTo("reports@fitness.com");
+    }
+
+    @Test
+    void shouldReuseSmtpConnection_upToMaxMessagesPerConnection() {
+        emailSender = new QueuedEmailSender(smtpMailSender(), properties(100, Duration.ofSeconds(5), 3, 1, 20), meterRegistry, threadFactory);
+        emailSender.start();
+
+        for (int i = 0; i < 60; i++) {
+            emailSender.send(new EmailDto("user%d@domain.com".formatted(i), "Report " + i, "Content " + i));
+        }
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> greenMail.getReceivedMessages().length == 60);
+        assertThat(meterRegistry.get("mail.connections.opened").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("mail.connections.reused").counter().count()).isEqualTo(57);
+        assertThat(meterRegistry.get("mail.messages").tag("outcome", "sent").counter().count()).isEqualTo(60);
+    }
+
+    @Test
+    void shouldRetryFailedEmails_whenSmtpServerFailsTemporarily() {
+        JavaMailSenderImpl mailSender = spy(smtpMailSender());
+        // the first connection goes to the port with no SMTP server
+        doReturn(1).doCallRealMethod().when(mailSender).getPort();
+        emailSender = new QueuedEmailSender(mailSender, properties(100, Duration.ofSeconds(5), 3, 1, 100), meterRegistry, threadFactory);
+        emailSender.start();
+
+        emailSender.send(new EmailDto("user@domain.com", "Report", "Content"));
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> greenMail.getReceivedMessages().length == 1);
+        assertThat(meterRegistry.get("mail.messages").tag("outcome", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFailDelivery_whenAllAttemptsFail() {
+        JavaMailSenderImpl mailSender = spy(smtpMailSender());
+        // every connection goes to the port with no SMTP server
+        doReturn(1).when(mailSender).getPort();
+        emailSender = new QueuedEmailSender(mailSender, properties(100, Duration.ofSeconds(5), 2, 1, 100), meterRegistry, threadFactory);
+        emailSender.start();
+
+        CompletableFuture<Void> delivery = emailSender.send(new EmailDto("user@domain.com", "Report", "Content"));
+
+        assertThat(delivery).failsWithin(10, TimeUnit.SECONDS)
+                .withThrowableOfType(ExecutionException.class)
+                .withMessageContaining("not sent after 2 attempts");
+    }
+
+    @Test
+    void shouldFailQueuedEmails_whenStoppedBeforeSending() throws InterruptedException {
+        // no workers, so nothing is taken from the queue
+        emailSender = new QueuedEmailSender(smtpMailSender(), properties(10, Duration.ofMillis(100), 1, 0, 100), meterRegistry, threadFactory);
+        emailSender.start();
+
+        CompletableFuture<Void> delivery = emailSender.send(new EmailDto("user@domain.com", "Report", "Content"));
+        emailSender.stop();
+
+        assertThat(delivery).isCompletedExceptionally();
+    }
+
+    @Test
+    void shouldRejectEmail_whenQueueStaysFull() {
+        // no workers, so nothing is taken from the queue
+        emailSender = new QueuedEmailSender(smtpMailSender(), properties(1, Duration.ofMillis(100), 1, 0, 100), meterRegistry, threadFactory);
+        emailSender.start();
+
+        emailSender.send(new EmailDto("first@domain.com", "Report", "Content"));
+
+        assertThatThrownBy(() -> emailSender.send(new EmailDto("second@domain.com", "Report", "Content")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("queue is full");
+        assertThat(meterRegistry.get("mail.queue.size").gauge().value()).isEqualTo(1);
+    }
+
+    private static JavaMailSenderImpl smtpMailSender() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        return mailSender;
+    }
+
+    private static MailProperties properties(int queueCapacity, Duration enqueueTimeout, int maxAttempts, int workers, int maxMessagesPerConnection) {
+        return new MailProperties("reports@fitness.com", queueCapacity, enqueueTimeout, workers, 50, maxAttempts,
+                Duration.ofMillis(10), maxMessagesPerConnection, Duration.ofSeconds(30));
+    }
+
+}
@@ -0,0 +1,116 @@
+package pl.wsb.fitnesstracker.metrics.internal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureObservability
+// testowy application.yml przeslania glowny, wiec endpoint i histogram zadan trzeba wlaczyc jawnie
+@TestPropertySource(properties = {
+        "management.endpoints.web.exposure.include=prometheus",
+        "management.metrics.distribution.percentiles-histogram.http.server.requests=true"
+})
+class MethodMetricsIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldTimeServiceAndRepositoryCalls_whenGettingAllUsers() throws Exception {
+        existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 5, 1), "emma.johnson@domain.com"));
+        existingUser(new User("Ethan", "Taylor", LocalDate.of(1991, 2, 1), "ethan.taylor@domain.com"));
+        long serviceCalls = serviceCalls("findAllUsers", "success");
+        long repositoryCalls = repositoryCalls("findAll");
+        double rows = repositoryRows("findAll");
+
+        mockMvc.perform(get("/v1/users")).andExpect(status().isOk());
+
+        assertThat(serviceCalls("findAllUsers", "success")).isEqualTo(serviceCalls + 1);
+        assertThat(repositoryCalls("findAll")).isEqualTo(repositoryCalls + 1);
+        assertThat(repositoryRows("findAll")).isEqualTo(rows + 2);
+    }
+
+    @Test
+    void shouldTagErrorOutcomeAndException_whenServiceThrows() throws Exception {
+        long failedCalls = serviceCalls("findUserByEmail", "error");
+
+        mockMvc.perform(get("/v1/users/email").param("email", "emma").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(meterRegistry.get("service.duration")
+                .tags("class", "UserServiceImpl", "method", "findUserByEmail", "exception", "BusinessException")
+                .timer().count()).isEqualTo(failedCalls + 1);
+    }
+
+    @Test
+    void shouldNotTimeRepositoryCall_whenItReturnsStream() throws Exception {
+        existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 5, 1), "emma.johnson@domain.com"));
+        long serviceCalls = serviceCalls("forEachSimpleUser", "success");
+
+        MvcResult result = mockMvc.perform(get("/v1/users/simple"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        assertThat(serviceCalls("forEachSimpleUser", "success")).isEqualTo(serviceCalls + 1);
+        assertThat(repositoryCalls("streamAllListItems")).isZero();
+    }
+
+    @Test
+    void shouldExposeHistogramsAtPrometheusEndpoint() throws Exception {
+        mockMvc.perform(get("/v1/users")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .containsPattern("http_server_requests_seconds_bucket\\{.*uri=\"/v1/users\"")
+                .containsPattern("service_duration_seconds_bucket\\{class=\"UserServiceImpl\".*method=\"findAllUsers\"")
+                .containsPattern("repository_duration_seconds_bucket\\{class=\"UserRepository\".*method=\"findAll\"")
+                .containsPattern("repository_rows_bucket\\{class=\"UserRepository\".*method=\"findAll\"");
+    }
+
+    private long serviceCalls(String method, String outcome) {
+        Timer timer = meterRegistry.find("service.duration")
+                .tags("class", "UserServiceImpl", "method", method, "outcome", outcome)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private long repositoryCalls(String method) {
+        Timer timer = meterRegistry.find("repository.duration")
+                .tags("class", "UserRepository", "method", method, "outcome", "success")
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double repositoryRows(String method) {
+        DistributionSummary summary = meterRegistry.find("repository.rows")
+                .tags("class", "UserRepository", "method", method)
+                .summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+}
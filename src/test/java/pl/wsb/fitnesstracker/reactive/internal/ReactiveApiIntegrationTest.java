@@ -0,0 +1,126 @@
+package pl.wsb.fitnesstracker.reactive.internal;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The {@code /v2} API reads through its own R2DBC connections, so the test data has to be committed
+ * and the test cannot run in the test transaction.
+ */
+@IntegrationTest
+class ReactiveApiIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private ReactiveApiServer reactiveApiServer;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void createClient() {
+        client = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + reactiveApiServer.getPort())
+                .build();
+    }
+
+    @Test
+    void shouldStreamAllUsersOrderedById_whenGettingUsers() {
+        User first = existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 5, 1), "emma.johnson@domain.com"));
+        User second = existingUser(new User("Ethan", "Taylor", LocalDate.of(1973, 2, 3), "ethan.taylor@domain.com"));
+
+        List<String> lines = getLines("/v2/users");
+
+        assertThat(lines).hasSize(2);
+        assertThat((Number) JsonPath.read(lines.get(0), "$.Id")).isEqualTo(first.getId().intValue());
+        assertThat((String) JsonPath.read(lines.get(0), "$.firstName")).isEqualTo("Emma");
+        assertThat((String) JsonPath.read(lines.get(0), "$.birthdate")).isEqualTo("1996-05-01");
+        assertThat((String) JsonPath.read(lines.get(1), "$.email")).isEqualTo(second.getEmail());
+    }
+
+    @Test
+    void shouldReturnUser_whenGettingUserById() {
+        User user = existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 5, 1), "emma.johnson@domain.com"));
+
+        client.get().uri("/v2/users/{id}", user.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.Id").isEqualTo(user.getId())
+                .jsonPath("$.lastName").isEqualTo("Johnson")
+                .jsonPath("$.email").isEqualTo("emma.johnson@domain.com");
+    }
+
+    @Test
+    void shouldReturnNotFound_whenGettingMissingUser() {
+        client.get().uri("/v2/users/{id}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenUserIdIsNotNumber() {
+        client.get().uri("/v2/users/{id}", "abc")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldStreamOnlyTrainingsOfUserOrderedByStartTime_whenGettingUserTrainings() {
+        User user = existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 5, 1), "emma.johnson@domain.com"));
+        User other = existingUser(new User("Ethan", "Taylor", LocalDate.of(1973, 2, 3), "ethan.taylor@domain.com"));
+        Training later = persistTraining(new Training(user, new Date(3_000_000L), new Date(4_000_000L), ActivityType.CYCLING, 25.0, 18.5));
+        Training earlier = persistTraining(new Training(user, new Date(1_000_000L), new Date(2_000_000L), ActivityType.RUNNING, 10.5, 8.2));
+        persistTraining(new Training(other, new Date(1_000_000L), new Date(2_000_000L), ActivityType.RUNNING, 5.0, 6.0));
+
+        List<String> lines = getLines("/v2/trainings/" + user.getId());
+
+        assertThat(lines).hasSize(2);
+        assertThat((Number) JsonPath.read(lines.get(0), "$.id")).isEqualTo(earlier.getId().intValue());
+        assertThat((Number) JsonPath.read(lines.get(0), "$.userId")).isEqualTo(user.getId().intValue());
+        assertThat((String) JsonPath.read(lines.get(0), "$.startTime")).isEqualTo("1970-01-01T00:16:40.000+00:00");
+        assertThat((String) JsonPath.read(lines.get(0), "$.activityType")).isEqualTo("RUNNING");
+        assertThat((Double) JsonPath.read(lines.get(0), "$.distance")).isEqualTo(10.5);
+        assertThat((Number) JsonPath.read(lines.get(1), "$.id")).isEqualTo(later.getId().intValue());
+        assertThat((String) JsonPath.read(lines.get(1), "$.activityType")).isEqualTo("CYCLING");
+    }
+
+    @Test
+    void shouldStreamAllTrainings_whenGettingTrainings() {
+        User user = existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 5, 1), "emma.johnson@domain.com"));
+        for (int i = 0; i < 500; i++) {
+            persistTraining(new Training(user, new Date(i * 1000L), new Date(i * 1000L + 500), ActivityType.WALKING, i, 5.0));
+        }
+
+        List<String> lines = getLines("/v2/trainings");
+
+        assertThat(lines).hasSize(500);
+        assertThat((Double) JsonPath.read(lines.get(499), "$.distance")).isEqualTo(499.0);
+    }
+
+    private List<String> getLines(String uri) {
+        String body = client.get().uri(uri)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+        return body == null ? List.of() : body.lines().toList();
+    }
+
+}
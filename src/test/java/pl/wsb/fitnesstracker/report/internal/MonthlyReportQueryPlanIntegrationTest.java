@@ -0,0 +1,34 @@
+package pl.wsb.fitnesstracker.report.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.QueryPlanTestBase;
+
+import java.util.Date;
+import java.util.stream.Stream;
+
+/**
+ * pilnuje, zeby agregacja raportu miesiecznego czytala treningi kazdego usera z przedzialu czasu jednym
+ * przeszukaniem indeksu (user_id, start_time), bez skanu tabeli
+ */
+
+@IntegrationTest
+@Transactional
+class MonthlyReportQueryPlanIntegrationTest extends QueryPlanTestBase {
+
+    @Autowired
+    private MonthlyReportRepository monthlyReportRepository;
+
+    @Test
+    void shouldSeekTrainingsByUserAndStartTime_whenCountingTrainingsPerUser() {
+        assertUsesIndex("trainings", "ix_trainings_user_id_start_time", () -> {
+            try (Stream<UserTrainingCount> counts = monthlyReportRepository.countTrainingsPerUser(
+                    new Date(1_000_000L), new Date(2_000_000L), 0, Long.MAX_VALUE)) {
+                counts.forEach(count -> { });
+            }
+        });
+    }
+
+}
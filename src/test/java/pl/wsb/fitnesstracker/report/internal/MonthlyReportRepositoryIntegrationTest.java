@@ -0,0 +1,79 @@
+package pl.wsb.fitnesstracker.report.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pl.wsb.fitnesstracker.report.internal.ReportTestData.generateUser;
+import static pl.wsb.fitnesstracker.report.internal.ReportTestData.toDate;
+import static pl.wsb.fitnesstracker.report.internal.ReportTestData.trainingAt;
+
+/**
+ * sprawdza zapytanie agregujace treningi w polotwartym przedziale miesiaca
+ */
+
+@IntegrationTest
+@Transactional
+class MonthlyReportRepositoryIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MonthlyReportRepository monthlyReportRepository;
+
+    @Test
+    void shouldCountOnlyTrainingsStartedInMonth_whenCountingTrainingsPerUser() {
+        User user1 = existingUser(generateUser());
+        User user2 = existingUser(generateUser());
+        User user3 = existingUser(generateUser());
+
+        persistTraining(trainingAt(user1, LocalDateTime.of(2025, 6, 1, 0, 0)));
+        persistTraining(trainingAt(user1, LocalDateTime.of(2025, 6, 30, 23, 59)));
+        persistTraining(trainingAt(user1, LocalDateTime.of(2025, 7, 1, 0, 0)));
+        persistTraining(trainingAt(user2, LocalDateTime.of(2025, 6, 15, 12, 0)));
+        persistTraining(trainingAt(user3, LocalDateTime.of(2025, 5, 31, 23, 59)));
+
+        List<UserTrainingCount> counts;
+        try (Stream<UserTrainingCount> stream = monthlyReportRepository.countTrainingsPerUser(
+                toDate(LocalDateTime.of(2025, 6, 1, 0, 0)), toDate(LocalDateTime.of(2025, 7, 1, 0, 0)),
+                0, Long.MAX_VALUE)) {
+            counts = stream.toList();
+        }
+
+        assertThat(counts).containsExactly(
+                new UserTrainingCount(user1.getId(), user1.getEmail(), 2),
+                new UserTrainingCount(user2.getId(), user2.getEmail(), 1));
+    }
+
+    @Test
+    void shouldCountOnlyUsersFromPartition_whenCountingTrainingsPerUserInIdRange() {
+        User user1 = existingUser(generateUser());
+        User user2 = existingUser(generateUser());
+
+        persistTraining(trainingAt(user1, LocalDateTime.of(2025, 6, 10, 10, 0)));
+        persistTraining(trainingAt(user2, LocalDateTime.of(2025, 6, 10, 10, 0)));
+
+        List<UserTrainingCount> counts;
+        try (Stream<UserTrainingCount> stream = monthlyReportRepository.countTrainingsPerUser(
+                toDate(LocalDateTime.of(2025, 6, 1, 0, 0)), toDate(LocalDateTime.of(2025, 7, 1, 0, 0)),
+                user2.getId(), user2.getId() + 1)) {
+            counts = stream.toList();
+        }
+
+        assertThat(counts).containsExactly(new UserTrainingCount(user2.getId(), user2.getEmail(), 1));
+    }
+
+    @Test
+    void shouldReturnMinAndMaxUserId_whenFindingUserIdRange() {
+        User user1 = existingUser(generateUser());
+        User user2 = existingUser(generateUser());
+
+        assertThat(monthlyReportRepository.findUserIdRange()).isEqualTo(new UserIdRange(user1.getId(), user2.getId()));
+    }
+}
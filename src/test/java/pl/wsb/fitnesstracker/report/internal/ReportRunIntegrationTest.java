@@ -0,0 +1,98 @@
+package pl.wsb.fitnesstracker.report.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.report.api.MonthlyTrainingReportDto;
+import pl.wsb.fitnesstracker.report.api.ReportService;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static pl.wsb.fitnesstracker.report.internal.ReportTestData.generateUser;
+import static pl.wsb.fitnesstracker.report.internal.ReportTestData.trainingAt;
+
+/**
+ * sprawdza wznawianie przerwanego przebiegu raportu; partycje przetwarzane sa w osobnych watkach,
+ * wiec test nie moze dzialac w transakcji testowej
+ */
+
+@IntegrationTest
+@TestPropertySource(properties = "report.partition-size=1")
+class ReportRunIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportRunRepository reportRunRepository;
+
+    @MockBean
+    private EmailSender emailSender;
+
+    @BeforeEach
+    void acknowledgeReports() {
+        when(emailSender.sendReport(any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void cleanUpReportRuns() {
+        reportRunRepository.deleteAll();
+    }
+
+    @Test
+    void shouldSkipCompletedPartitions_whenResumingFailedReportRun() {
+        User user1 = existingUser(generateUser());
+        User user2 = existingUser(generateUser());
+        persistTraining(trainingAt(user1, LocalDateTime.of(2025, 6, 10, 10, 0)));
+        persistTraining(trainingAt(user2, LocalDateTime.of(2025, 6, 10, 10, 0)));
+
+        doThrow(new IllegalStateException("SMTP down"))
+                .doReturn(CompletableFuture.completedFuture(null))
+                .when(emailSender).sendReport(argThat(report -> report.getUserId().equals(user2.getId())));
+
+        assertThatThrownBy(() -> reportService.generateAndSendMonthlyReports(2025, 6))
+                .isInstanceOf(IllegalStateException.class);
+        reportService.generateAndSendMonthlyReports(2025, 6);
+        reportService.generateAndSendMonthlyReports(2025, 6);
+
+        verify(emailSender, times(1)).sendReport(argThat(report -> report.getUserId().equals(user1.getId())));
+        verify(emailSender, times(2)).sendReport(argThat(report -> report.getUserId().equals(user2.getId())));
+        verify(emailSender, times(3)).sendReport(any(MonthlyTrainingReportDto.class));
+        assertThat(reportRunRepository.findAllByYearAndMonthOrderByRangeStart(2025, 6))
+                .allMatch(ReportRunPartition::isDone);
+    }
+
+    @Test
+    void shouldResendPartitionReports_whenQueuedReportWasNotDelivered() {
+        User user = existingUser(generateUser());
+        persistTraining(trainingAt(user, LocalDateTime.of(2025, 6, 10, 10, 0)));
+
+        // raport zostal przyjety do kolejki, ale jego wysylka nie powiodla sie
+        when(emailSender.sendReport(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("SMTP down")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThatThrownBy(() -> reportService.generateAndSendMonthlyReports(2025, 6))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(reportRunRepository.findAllByYearAndMonthOrderByRangeStart(2025, 6))
+                .noneMatch(ReportRunPartition::isDone);
+
+        reportService.generateAndSendMonthlyReports(2025, 6);
+
+        verify(emailSender, times(2)).sendReport(any(MonthlyTrainingReportDto.class));
+        assertThat(reportRunRepository.findAllByYearAndMonthOrderByRangeStart(2025, 6))
+                .allMatch(ReportRunPartition::isDone);
+    }
+}
@@ -1,20 +1,24 @@
 package pl.wsb.fitnesstracker.report.internal;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import pl.wsb.fitnesstracker.report.api.MonthlyTrainingReportDto;
-import pl.wsb.fitnesstracker.training.api.Training;
-import pl.wsb.fitnesstracker.training.api.TrainingService;
-import pl.wsb.fitnesstracker.user.api.User;
-import pl.wsb.fitnesstracker.user.api.UserService;
+import java.time.Duration;
+import java.time.YearMonth;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.Optional;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -25,70 +29,81 @@ import static org.mockito.Mockito.*;
 public class ReportServiceImplTest {
 
     @Mock
-    private TrainingService trainingService;
+    private ReportPartitionService partitionService;
 
-    @Mock
-    private UserService userService;
-
-    @Mock
-    private EmailSender emailSender;
+    private SimpleMeterRegistry meterRegistry;
 
-    @InjectMocks
     private ReportServiceImpl reportService;
 
-    static class TestUser extends User {
-        private final Long id;
-        private final String email;
-
-        public TestUser(Long id, String email) {
-            super();
-            this.id = id;
-            this.email = email;
-        }
-
-        @Override
-        public Long getId() {
-            return id;
-        }
-
-        @Override
-        public String getEmail() {
-            return email;
-        }
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reportService = new ReportServiceImpl(partitionService, new ReportProperties(2, 100, Duration.ofMillis(200)), meterRegistry,
+                new CustomizableThreadFactory("report-partition-"));
     }
 
-    static class TestTraining extends Training {
-        private final Date startTime;
+    @Test
+    void testGenerateAndSendMonthlyReports() {
+        ReportRunPartition done = partition(1L, 0);
+        done.complete(5);
+        ReportRunPartition pending1 = partition(2L, 100);
+        ReportRunPartition pending2 = partition(3L, 200);
+        //jedna partycja zostala juz przetworzona w poprzednim przebiegu
 
-        public TestTraining(Date startTime) {
-            super();
-            this.startTime = startTime;
-        }
+        when(partitionService.plan(YearMonth.of(2025, 6))).thenReturn(List.of(done, pending1, pending2));
+        when(partitionService.sendReports(anyLong())).thenReturn(List.of(CompletableFuture.completedFuture(null)));
 
-        @Override
-        public Date getStartTime() {
-            return startTime;
-        }
+        reportService.generateAndSendMonthlyReports(2025, 6);
+
+        verify(partitionService, never()).sendReports(1L);
+        verify(partitionService).complete(2L, 1);
+        verify(partitionService).complete(3L, 1);
+        //sprawdz, czy przetworzono tylko niezakonczone partycje
+
+        assertEquals(2.0, meterRegistry.get("report.partitions").tag("outcome", "completed").counter().count());
     }
 
     @Test
-    void testGenerateAndSendMonthlyReports() {
-        TestUser user = new TestUser(1L, "test@example.com");
-        //utworz test usera
+    void testGenerateAndSendMonthlyReportsFailsWhenPartitionFails() {
+        ReportRunPartition pending1 = partition(1L, 0);
+        ReportRunPartition pending2 = partition(2L, 100);
 
-        Date trainingDate = new Date(1750032000000L); // 2025-06-15T00:00:00Z
-        TestTraining training = new TestTraining(trainingDate);
-        //stworz testowy trening z czerwca 2025
+        when(partitionService.plan(YearMonth.of(2025, 6))).thenReturn(List.of(pending1, pending2));
+        when(partitionService.sendReports(1L)).thenReturn(List.of(CompletableFuture.failedFuture(new IllegalStateException("SMTP down"))));
+        when(partitionService.sendReports(2L)).thenReturn(List.of(CompletableFuture.completedFuture(null)));
 
-        when(userService.findAllUsers()).thenReturn(List.of(user));
-        when(trainingService.findTrainingsByUser(any())).thenReturn(List.of(training));
-        //mockuj zwracane listy
+        assertThrows(IllegalStateException.class, () -> reportService.generateAndSendMonthlyReports(2025, 6));
 
-        reportService.generateAndSendMonthlyReports(2025, 6);
+        verify(partitionService, never()).complete(eq(1L), anyInt());
+        verify(partitionService).complete(2L, 1);
+        //pozostale partycje sa przetwarzane mimo bledu
+        assertEquals(1.0, meterRegistry.get("report.partitions").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void testGenerateAndSendMonthlyReportsSendsReportContent() {
+        MonthlyReportRepository monthlyReportRepository = mock(MonthlyReportRepository.class);
+        ReportRunRepository reportRunRepository = mock(ReportRunRepository.class);
+        EmailSender emailSender = mock(EmailSender.class);
+        ReportProperties reportProperties = new ReportProperties(2, 100, Duration.ofMillis(200));
+        ReportServiceImpl service = new ReportServiceImpl(
+                new ReportPartitionService(monthlyReportRepository, reportRunRepository, reportProperties, emailSender),
+                reportProperties, meterRegistry, new CustomizableThreadFactory("report-partition-"));
+        ReportRunPartition pending = partition(1L, 0);
+        //jeden user z jednym treningiem w czerwcu 2025
+
+        when(monthlyReportRepository.findUserIdRange()).thenReturn(new UserIdRange(1L, 1L));
+        when(reportRunRepository.findAllByYearAndMonthOrderByRangeStart(2025, 6)).thenReturn(List.of(pending));
+        when(reportRunRepository.findById(1L)).thenReturn(Optional.of(pending));
+        when(monthlyReportRepository.countTrainingsPerUser(any(Date.class), any(Date.class), eq(0L), eq(100L)))
+                .thenReturn(Stream.of(new UserTrainingCount(1L, "test@example.com", 1)));
+        when(emailSender.sendReport(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        service.generateAndSendMonthlyReports(2025, 6);
 
         ArgumentCaptor<MonthlyTrainingReportDto> captor = ArgumentCaptor.forClass(MonthlyTrainingReportDto.class);
         verify(emailSender, times(1)).sendReport(captor.capture());
-        //sprawdz, czy mail był wyslany z poprawnym raportem
+        //sprawdz, czy mail byl wyslany z poprawnym raportem
 
         MonthlyTrainingReportDto sentReport = captor.getValue();
         assertEquals(1L, sentReport.getUserId());
@@ -96,5 +111,25 @@ public class ReportServiceImplTest {
         assertEquals(2025, sentReport.getYear());
         assertEquals(6, sentReport.getMonth());
         assertEquals(1, sentReport.getTrainingCount());
+        assertTrue(pending.isDone());
+    }
+
+    @Test
+    void testGenerateAndSendMonthlyReportsFailsWhenDeliveryTimesOut() {
+        ReportRunPartition pending = partition(1L, 0);
+
+        when(partitionService.plan(YearMonth.of(2025, 6))).thenReturn(List.of(pending));
+        when(partitionService.sendReports(1L)).thenReturn(List.of(new CompletableFuture<>()));
+
+        assertThrows(IllegalStateException.class, () -> reportService.generateAndSendMonthlyReports(2025, 6));
+
+        //partycja bez potwierdzenia dostarczenia nie jest oznaczana jako zakonczona
+        verify(partitionService, never()).complete(anyLong(), anyInt());
+    }
+
+    private static ReportRunPartition partition(Long id, long rangeStart) {
+        ReportRunPartition partition = spy(new ReportRunPartition(2025, 6, rangeStart, rangeStart + 100));
+        lenient().when(partition.getId()).thenReturn(id);
+        return partition;
     }
-}
\ No newline at end of file
+}
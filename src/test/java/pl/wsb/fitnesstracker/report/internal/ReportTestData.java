@@ -0,0 +1,35 @@
+package pl.wsb.fitnesstracker.report.internal;
+
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+
+/**
+ * wspolne dane testow raportu miesiecznego
+ */
+
+final class ReportTestData {
+
+    private ReportTestData() {
+    }
+
+    static User generateUser() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
+    }
+
+    static Training trainingAt(User user, LocalDateTime start) {
+        return new Training(user, toDate(start), toDate(start.plusHours(1)), ActivityType.RUNNING, 5.0, 10.0);
+    }
+
+    static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+}
@@ -0,0 +1,283 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingDto;
+import pl.wsb.fitnesstracker.training.internal.TrainingServiceImpl;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.jayway.jsonpath.JsonPath.read;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static pl.wsb.fitnesstracker.user.internal.UserApiIntegrationTest.generateUser;
+
+/**
+ * The rebuild runs partitions in separate threads, so the test cannot run in the test transaction.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+@TestPropertySource(properties = "statistics.rebuild-partition-size=1")
+class StatisticsIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+
+    @Autowired
+    private StatisticsRebuildJob statisticsRebuildJob;
+
+    @Autowired
+    private StatisticsWriteBehind writeBehind;
+
+    @Autowired
+    private StatisticsServiceImpl statisticsService;
+
+    @Autowired
+    private TrainingServiceImpl trainingService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void flushPendingDeltas() {
+        // otherwise the scheduled flush could insert statistics of the users being deleted by the clean-up
+        writeBehind.flush();
+    }
+
+    @Test
+    void shouldApplyDeltas_whenTrainingsAreCreatedAndUpdated() throws Exception {
+        User user = existingUser(generateUser());
+
+        Long trainingId = createTraining(user, 10.5);
+        createTraining(user, 4.5);
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content("""
+                        [
+                            {"userId": %1$s, "startTime": "2024-04-02T10:00:00", "endTime": "2024-04-02T11:00:00", "activityType": "WALKING", "distance": 2.0},
+                            {"userId": %1$s, "startTime": "2024-04-03T10:00:00", "endTime": "2024-04-03T11:00:00", "activityType": "WALKING", "distance": 3.0}
+                        ]
+                        """.formatted(user.getId())))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/v1/trainings/{trainingId}", trainingId).contentType(MediaType.APPLICATION_JSON).content("""
+                        {"userId": %s, "distance": 12.5, "averageSpeed": 8.2}
+                        """.formatted(user.getId())))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(user.getId()))
+                .andExpect(jsonPath("$.totalTrainings").value(4))
+                .andExpect(jsonPath("$.totalDistance").value(22.0));
+    }
+
+    @Test
+    void shouldCreateStatisticsOnce_whenFirstTrainingsOfUserAreCreatedConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 10; round++) {
+                User user = existingUser(generateUser());
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Long>> trainings = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    trainings.add(executor.submit(() -> {
+                        start.await();
+                        return createTraining(user, 5.0);
+                    }));
+                }
+                start.countDown();
+                for (Future<Long> training : trainings) {
+                    training.get(10, TimeUnit.SECONDS);
+                }
+
+                writeBehind.flush();
+                assertThat(statisticsRepository.findByUserId(user.getId())).hasValueSatisfying(statistics -> {
+                    assertThat(statistics.getTotalTrainings()).isEqualTo(2);
+                    assertThat(statistics.getTotalDistance()).isEqualTo(10.0);
+                });
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldReturnNotFound_whenUserHasNoStatistics() throws Exception {
+        User user = existingUser(generateUser());
+
+        mockMvc.perform(get("/v1/statistics/user/{userId}", user.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldCorrectStatistics_whenTheyDifferFromTrainings() throws Exception {
+        User consistentUser = existingUser(generateUser());
+        User driftedUser = existingUser(generateUser());
+        User userWithoutStatistics = existingUser(generateUser());
+        createTraining(consistentUser, 5.0);
+        createTraining(driftedUser, 7.0);
+        createTraining(driftedUser, 1.0);
+        writeBehind.flush();
+        Statistics drifted = statisticsRepository.findByUserId(driftedUser.getId()).orElseThrow();
+        drifted.setTotalTrainings(5);
+        drifted.setTotalDistance(100.0);
+        statisticsRepository.save(drifted);
+        persistTraining(new Training(userWithoutStatistics, new Date(), new Date(), ActivityType.RUNNING, 3.0, 6.0));
+
+        int corrected = statisticsRebuildJob.rebuild();
+
+        assertThat(corrected).isEqualTo(2);
+        assertThat(statisticsRepository.findByUserId(consistentUser.getId())).hasValueSatisfying(statistics -> {
+            assertThat(statistics.getTotalTrainings()).isEqualTo(1);
+            assertThat(statistics.getTotalDistance()).isEqualTo(5.0);
+        });
+        assertThat(statisticsRepository.findByUserId(driftedUser.getId())).hasValueSatisfying(statistics -> {
+            assertThat(statistics.getTotalTrainings()).isEqualTo(2);
+            assertThat(statistics.getTotalDistance()).isEqualTo(8.0);
+        });
+        assertThat(statisticsRepository.findByUserId(userWithoutStatistics.getId())).hasValueSatisfying(statistics -> {
+            assertThat(statistics.getTotalTrainings()).isEqualTo(1);
+            assertThat(statistics.getTotalDistance()).isEqualTo(3.0);
+        });
+        assertThat(statisticsRebuildJob.rebuild()).isZero();
+    }
+
+    @Test
+    void shouldKeepStatisticsExact_whenDeltasAreAddedConcurrentlyWithFlushes() throws Exception {
+        User user = existingUser(generateUser());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 5_000; j++) {
+                    writeBehind.add(user.getId(), 1, 0.5);
+                    if (j % 1_000 == 0) {
+                        writeBehind.flush();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(statisticsService.getStatisticsForUser(user.getId())).hasValueSatisfying(statistics -> {
+            assertThat(statistics.getTotalTrainings()).isEqualTo(40_000);
+            assertThat(statistics.getTotalDistance()).isEqualTo(20_000.0);
+        });
+        writeBehind.flush();
+        assertThat(writeBehind.pending(user.getId())).isEqualTo(StatisticsWriteBehind.PendingDelta.NONE);
+        assertThat(statisticsRepository.findByUserId(user.getId())).hasValueSatisfying(statistics -> {
+            assertThat(statistics.getTotalTrainings()).isEqualTo(40_000);
+            assertThat(statistics.getTotalDistance()).isEqualTo(20_000.0);
+        });
+    }
+
+    @Test
+    void shouldMergePendingDeltas_whenReadingStatisticsBeforeFlush() throws Exception {
+        User user = existingUser(generateUser());
+        createTraining(user, 5.0);
+        writeBehind.flush();
+
+        writeBehind.add(user.getId(), 2, 3.0);
+
+        assertThat(statisticsService.getStatisticsForUser(user.getId())).hasValueSatisfying(statistics -> {
+            assertThat(statistics.getTotalTrainings()).isEqualTo(3);
+            assertThat(statistics.getTotalDistance()).isEqualTo(8.0);
+        });
+        assertThat(statisticsRepository.findByUserId(user.getId())).hasValueSatisfying(statistics ->
+                assertThat(statistics.getTotalTrainings()).isEqualTo(1));
+    }
+
+    @Test
+    void shouldCountTrainingOnce_whenRebuildRunsBetweenTrainingCommitAndBufferingOfItsDelta() throws Exception {
+        User user = existingUser(generateUser());
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> training = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                // registered before the statistics delta, so the training thread stops after the commit and before buffering
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        committed.countDown();
+                        awaitUninterruptibly(resume);
+                    }
+                });
+                trainingService.create(new TrainingDto(null, user.getId(), new Date(), new Date(),
+                        ActivityType.RUNNING, 5.0, 8.2));
+            }));
+            assertThat(committed.await(10, TimeUnit.SECONDS)).isTrue();
+
+            Future<Integer> rebuild = executor.submit(() -> statisticsRebuildJob.rebuild());
+            await().during(Duration.ofMillis(500)).atMost(Duration.ofSeconds(1)).until(() -> !rebuild.isDone());
+            resume.countDown();
+            training.get(10, TimeUnit.SECONDS);
+            rebuild.get(10, TimeUnit.SECONDS);
+        } finally {
+            resume.countDown();
+            executor.shutdown();
+        }
+
+        writeBehind.flush();
+        assertThat(statisticsRepository.findByUserId(user.getId())).hasValueSatisfying(statistics -> {
+            assertThat(statistics.getTotalTrainings()).isEqualTo(1);
+            assertThat(statistics.getTotalDistance()).isEqualTo(5.0);
+        });
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Long createTraining(User user, double distance) throws Exception {
+        MvcResult result = mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content("""
+                        {
+                            "userId": %s,
+                            "startTime": "2024-04-01T10:00:00",
+                            "endTime": "2024-04-01T11:00:00",
+                            "activityType": "RUNNING",
+                            "distance": %s,
+                            "averageSpeed": 8.2
+                        }
+                        """.formatted(user.getId(), distance)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return ((Number) read(result.getResponse().getContentAsString(), "$.id")).longValue();
+    }
+
+}
@@ -0,0 +1,25 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.QueryPlanTestBase;
+
+import java.util.List;
+
+/**
+ * Guards the partitioned rebuild: summing the trainings of a partition must seek them by user id.
+ */
+@IntegrationTest
+class StatisticsQueryPlanIntegrationTest extends QueryPlanTestBase {
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+
+    @Test
+    void shouldSeekByUserId_whenSummingTrainingsPerUser() {
+        assertSeeksBy("trainings", "user_id",
+                () -> statisticsRepository.sumTrainingsPerUser(List.of(1L, 2L)));
+    }
+
+}
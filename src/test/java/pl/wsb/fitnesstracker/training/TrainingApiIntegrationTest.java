@@ -1,10 +1,12 @@
 package pl.wsb.fitnesstracker.training;
 
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import pl.wsb.fitnesstracker.IntegrationTest;
 import pl.wsb.fitnesstracker.IntegrationTestBase;
@@ -17,6 +19,7 @@ import java.text.SimpleDateFormat;
 
 import static java.time.LocalDate.now;
 import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -79,19 +82,17 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
         mockMvc.perform(get("/v1/trainings").contentType(MediaType.APPLICATION_JSON))
                 .andDo(log())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].user.id").value(user1.getId()))
-                .andExpect(jsonPath("$[0].user.firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$[0].user.lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$[0].user.email").value(user1.getEmail()))
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items[0].userId").value(user1.getId()))
 
 
-                .andExpect(jsonPath("$[0].startTime").value(sdf.format(training1.getStartTime())))
-                .andExpect(jsonPath("$[0].endTime").value(sdf.format(training1.getEndTime())))
-                .andExpect(jsonPath("$[0].distance").value((training1.getDistance())))
-                .andExpect(jsonPath("$[0].averageSpeed").value(training1.getAverageSpeed()))
+                .andExpect(jsonPath("$.items[0].startTime").value(sdf.format(training1.getStartTime())))
+                .andExpect(jsonPath("$.items[0].endTime").value(sdf.format(training1.getEndTime())))
+                .andExpect(jsonPath("$.items[0].distance").value((training1.getDistance())))
+                .andExpect(jsonPath("$.items[0].averageSpeed").value(training1.getAverageSpeed()))
 
-                .andExpect(jsonPath("$[1]").doesNotExist());
+                .andExpect(jsonPath("$.items[1]").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
     }
 
     @Test
@@ -104,17 +105,49 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
         mockMvc.perform(get("/v1/trainings/{userId}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
                 .andDo(log())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].user.id").value(user1.getId()))
-                .andExpect(jsonPath("$[0].user.firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$[0].user.lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$[0].user.email").value(user1.getEmail()))
-                .andExpect(jsonPath("$[0].startTime").value(sdf.format(training1.getStartTime())))
-                .andExpect(jsonPath("$[0].endTime").value(sdf.format(training1.getEndTime())))
-                .andExpect(jsonPath("$[0].distance").value((training1.getDistance())))
-                .andExpect(jsonPath("$[0].averageSpeed").value(training1.getAverageSpeed()))
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items[0].userId").value(user1.getId()))
+                .andExpect(jsonPath("$.items[0].startTime").value(sdf.format(training1.getStartTime())))
+                .andExpect(jsonPath("$.items[0].endTime").value(sdf.format(training1.getEndTime())))
+                .andExpect(jsonPath("$.items[0].distance").value((training1.getDistance())))
+                .andExpect(jsonPath("$.items[0].averageSpeed").value(training1.getAverageSpeed()))
+
+                .andExpect(jsonPath("$.items[1]").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
 
-                .andExpect(jsonPath("$[1]").doesNotExist());
+    @Test
+    void shouldReturnAllTrainingsPageByPage_whenGettingAllTrainingsWithLimit() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTrainingWithDetails(user1, "2024-05-17 19:00:00", "2024-05-17 20:30:00", ActivityType.RUNNING, 14, 11.5));
+        Training training2 = persistTraining(generateTrainingWithDetails(user1, "2024-05-18 19:00:00", "2024-05-18 20:30:00", ActivityType.RUNNING, 14, 11.5));
+        Training training3 = persistTraining(generateTrainingWithDetails(user1, "2024-05-18 19:00:00", "2024-05-18 20:00:00", ActivityType.CYCLING, 20, 20));
+
+        MvcResult firstPage = mockMvc.perform(get("/v1/trainings").param("limit", "2").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(training1.getId()))
+                .andExpect(jsonPath("$.items[1].id").value(training2.getId()))
+                .andExpect(jsonPath("$.items[2]").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn();
+        String cursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/v1/trainings").param("limit", "2").param("cursor", cursor).contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(training3.getId()))
+                .andExpect(jsonPath("$.items[1]").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenGettingAllTrainingsWithInvalidCursor() throws Exception {
+
+        mockMvc.perform(get("/v1/trainings").param("cursor", "not-a-cursor").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -130,10 +163,7 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
                 .andDo(log())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].user.id").value(user1.getId()))
-                .andExpect(jsonPath("$[0].user.firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$[0].user.lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$[0].user.email").value(user1.getEmail()))
+                .andExpect(jsonPath("$[0].userId").value(user1.getId()))
                 .andExpect(jsonPath("$[0].startTime").value(sdf.format(training1.getStartTime())))
                 .andExpect(jsonPath("$[0].endTime").value(sdf.format(training1.getEndTime())))
                 .andExpect(jsonPath("$[0].distance").value((training1.getDistance())))
@@ -153,15 +183,9 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
                 .andDo(log())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].user.id").value(user1.getId()))
-                .andExpect(jsonPath("$[0].user.firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$[0].user.lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$[0].user.email").value(user1.getEmail()))
+                .andExpect(jsonPath("$[0].userId").value(user1.getId()))
                 .andExpect(jsonPath("$[0].activityType").value(training2.getActivityType().toString()))
-                .andExpect(jsonPath("$[1].user.id").value(user1.getId()))
-                .andExpect(jsonPath("$[1].user.firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$[1].user.lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$[1].user.email").value(user1.getEmail()))
+                .andExpect(jsonPath("$[1].userId").value(user1.getId()))
                 .andExpect(jsonPath("$[1].activityType").value(training3.getActivityType().toString()))
 
                 .andExpect(jsonPath("$[2]").doesNotExist());
@@ -185,15 +209,101 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
         mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
                 .andDo(log())
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.user.id").value(user1.getId()))
-                .andExpect(jsonPath("$.user.firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$.user.lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$.user.email").value(user1.getEmail()))
+                .andExpect(jsonPath("$.userId").value(user1.getId()))
                 .andExpect(jsonPath("$.distance").value(10.52))
                 .andExpect(jsonPath("$.averageSpeed").value(8.2));
 
     }
 
+    @Test
+    void shouldPersistValidTrainingsAndRejectInvalidOnes_whenCreatingTrainingsInBatch() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+
+        String requestBody = """
+                [
+                    {
+                        "userId": "%s",
+                        "startTime": "2024-04-01T10:00:00",
+                        "endTime": "2024-04-01T11:00:00",
+                        "activityType": "RUNNING",
+                        "distance": 10.52,
+                        "averageSpeed": 8.2
+                    },
+                    {
+                        "userId": "%s",
+                        "startTime": "2024-04-02T10:00:00",
+                        "endTime": "2024-04-02T11:00:00",
+                        "activityType": "CYCLING",
+                        "distance": 30.0,
+                        "averageSpeed": 20.0
+                    },
+                    {
+                        "userId": "-1",
+                        "startTime": "2024-04-03T10:00:00",
+                        "endTime": "2024-04-03T11:00:00",
+                        "activityType": "WALKING",
+                        "distance": 5.0,
+                        "averageSpeed": 5.0
+                    },
+                    {
+                        "userId": "%s",
+                        "activityType": "WALKING",
+                        "distance": 5.0,
+                        "averageSpeed": 5.0
+                    }
+                ]
+                """.formatted(user1.getId(), user2.getId(), user1.getId());
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].trainingId").isNumber())
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].trainingId").isNumber())
+                .andExpect(jsonPath("$[2].index").value(2))
+                .andExpect(jsonPath("$[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$[2].error").value("User not found"))
+                .andExpect(jsonPath("$[3].index").value(3))
+                .andExpect(jsonPath("$[3].status").value("REJECTED"))
+                .andExpect(jsonPath("$[4]").doesNotExist());
+
+        assertThat(getAllTrainings()).hasSize(2);
+    }
+
+    @Test
+    void shouldRejectNullItem_whenCreatingTrainingsInBatch() throws Exception {
+
+        User user1 = existingUser(generateClient());
+
+        String requestBody = """
+                [
+                    null,
+                    {
+                        "userId": "%s",
+                        "startTime": "2024-04-01T10:00:00",
+                        "endTime": "2024-04-01T11:00:00",
+                        "activityType": "RUNNING",
+                        "distance": 10.52,
+                        "averageSpeed": 8.2
+                    }
+                ]
+                """.formatted(user1.getId());
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].status").value("REJECTED"))
+                .andExpect(jsonPath("$[0].error").value("Training is required"))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].status").value("CREATED"));
+
+        assertThat(getAllTrainings()).hasSize(1);
+    }
+
     @Test
     void shouldUpdateTraining_whenUpdatingTraining() throws Exception {
 
@@ -212,10 +322,7 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
         mockMvc.perform(put("/v1/trainings/{trainingId}", training1.getId()).contentType(MediaType.APPLICATION_JSON).content(requestBody))
                 .andDo(log())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.user.id").value(user1.getId()))
-                .andExpect(jsonPath("$.user.firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$.user.lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$.user.email").value(user1.getEmail()))
+                .andExpect(jsonPath("$.userId").value(user1.getId()))
                 .andExpect(jsonPath("$.activityType").value(ActivityType.TENNIS.toString()))
                 .andExpect(jsonPath("$.distance").value(0.0))
                 .andExpect(jsonPath("$.averageSpeed").value(0.0));
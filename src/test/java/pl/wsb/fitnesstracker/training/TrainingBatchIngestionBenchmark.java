@@ -0,0 +1,94 @@
+package pl.wsb.fitnesstracker.training;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import pl.wsb.fitnesstracker.BenchmarkTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.TrainingBatchItemResult;
+import pl.wsb.fitnesstracker.training.api.TrainingDto;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.training.internal.TrainingServiceImpl;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the throughput of the single training inserts ({@code POST /v1/trainings}) with the batch ingestion
+ * ({@code POST /v1/trainings/batch}) on the service level.
+ */
+@BenchmarkTest
+@Slf4j
+class TrainingBatchIngestionBenchmark extends IntegrationTestBase {
+
+    private static final int USERS = 100;
+    private static final int TRAININGS = 20_000;
+    private static final int BATCH_SIZE = 500;
+    private static final int WARMUP_TRAININGS = 2_000;
+
+    @Autowired
+    private TrainingServiceImpl trainingService;
+
+    @Test
+    void batchIngestionShouldOutperformSingleInserts() {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            userIds.add(existingUser(new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString())).getId());
+        }
+
+        insertOneByOne(generateTrainings(userIds, WARMUP_TRAININGS));
+        insertInBatches(generateTrainings(userIds, WARMUP_TRAININGS));
+
+        List<TrainingDto> single = generateTrainings(userIds, TRAININGS);
+        long singleStart = System.nanoTime();
+        insertOneByOne(single);
+        double singleThroughput = throughput(TRAININGS, System.nanoTime() - singleStart);
+
+        List<TrainingDto> batch = generateTrainings(userIds, TRAININGS);
+        long batchStart = System.nanoTime();
+        long created = insertInBatches(batch);
+        double batchThroughput = throughput(TRAININGS, System.nanoTime() - batchStart);
+
+        log.info("Single inserts: {} trainings/s, batch ingestion: {} trainings/s ({}x)",
+                Math.round(singleThroughput), Math.round(batchThroughput), "%.2f".formatted(batchThroughput / singleThroughput));
+        assertThat(created).isEqualTo(TRAININGS);
+        assertThat(batchThroughput).isGreaterThan(singleThroughput);
+    }
+
+    private void insertOneByOne(List<TrainingDto> trainings) {
+        trainings.forEach(trainingService::create);
+    }
+
+    private long insertInBatches(List<TrainingDto> trainings) {
+        long created = 0;
+        for (int from = 0; from < trainings.size(); from += BATCH_SIZE) {
+            List<TrainingDto> batch = trainings.subList(from, Math.min(from + BATCH_SIZE, trainings.size()));
+            created += trainingService.createAll(batch).stream()
+                    .filter(result -> result.status() == TrainingBatchItemResult.Status.CREATED)
+                    .count();
+        }
+        return created;
+    }
+
+    private static List<TrainingDto> generateTrainings(List<Long> userIds, int count) {
+        List<TrainingDto> trainings = new ArrayList<>(count);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            trainings.add(new TrainingDto(null, userIds.get(i % userIds.size()),
+                    new Date(start + i * 60_000L), new Date(start + i * 60_000L + 3_600_000L),
+                    ActivityType.RUNNING, 10.0, 9.5));
+        }
+        return trainings;
+    }
+
+    private static double throughput(int count, long nanos) {
+        return count / (nanos / 1_000_000_000.0);
+    }
+
+}
@@ -0,0 +1,61 @@
+package pl.wsb.fitnesstracker.training;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.Date;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Export is written asynchronously (outside of the request thread), so the test data has to be committed
+ * before the request is made - that's why this test is not {@code @Transactional}.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class TrainingExportIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldExportAllTrainingsAsNdjson_whenExportingTrainings() throws Exception {
+
+        User user1 = existingUser(new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString()));
+        Training training1 = persistTraining(new Training(user1, new Date(1_000_000L), new Date(2_000_000L), ActivityType.RUNNING, 10.5, 8.2));
+        Training training2 = persistTraining(new Training(user1, new Date(3_000_000L), new Date(4_000_000L), ActivityType.CYCLING, 25.0, 18.5));
+
+        MvcResult result = mockMvc.perform(get("/v1/trainings/export").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"id\":" + training1.getId(), "\"userId\":" + user1.getId(), "\"activityType\":\"RUNNING\"");
+        assertThat(lines[1]).contains("\"id\":" + training2.getId(), "\"userId\":" + user1.getId(), "\"activityType\":\"CYCLING\"");
+    }
+
+}
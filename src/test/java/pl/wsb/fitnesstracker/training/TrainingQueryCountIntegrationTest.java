@@ -0,0 +1,111 @@
+package pl.wsb.fitnesstracker.training;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.Date;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * sprawdza, ze listy treningow czytane sa jednym zapytaniem, bez dociagania userow treningow (N+1),
+ * a odpowiedz zawiera tylko id usera
+ */
+
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class TrainingQueryCountIntegrationTest extends IntegrationTestBase {
+
+    private static final int USERS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private User firstUser;
+
+    @BeforeEach
+    void createTrainings() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        for (int i = 0; i < USERS; i++) {
+            User user = existingUser(new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString()));
+            persistTraining(new Training(user, new Date(1_000_000L + i), new Date(2_000_000L), ActivityType.RUNNING, 10.5, 8.2));
+            persistTraining(new Training(user, new Date(3_000_000L + i), new Date(4_000_000L), ActivityType.CYCLING, 25.0, 18.5));
+            if (firstUser == null) {
+                firstUser = user;
+            }
+        }
+    }
+
+    @Test
+    void shouldExecuteSingleStatement_whenGettingTrainingsPage() throws Exception {
+        assertSingleStatement(get("/v1/trainings"), USERS * 2, "$.items");
+    }
+
+    @Test
+    void shouldExecuteSingleStatement_whenGettingTrainingsFinishedAfterDate() throws Exception {
+        assertSingleStatement(get("/v1/trainings/finished/{afterTime}", "1970-01-01"), USERS * 2, "$");
+    }
+
+    @Test
+    void shouldExecuteSingleStatement_whenGettingTrainingsByActivityType() throws Exception {
+        assertSingleStatement(get("/v1/trainings/activityType").param("activityType", "RUNNING"), USERS, "$");
+    }
+
+    @Test
+    void shouldExecuteSingleStatement_whenGettingUserTrainingsPageWithCachedUser() throws Exception {
+        // pierwsze zapytanie laduje usera do cache, kolejne czyta juz tylko treningi
+        mockMvc.perform(get("/v1/trainings/{userId}", firstUser.getId())).andExpect(status().isOk());
+
+        assertSingleStatement(get("/v1/trainings/{userId}", firstUser.getId()), 2, "$.items");
+    }
+
+    @Test
+    void shouldNotLoadUser_whenPrintingDetachedTraining() {
+        Long trainingId = getAllTrainings().get(0).getId();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        Training training = entityManager.find(Training.class, trainingId);
+        entityManager.close();
+        statistics.clear();
+
+        assertThat(training.toString()).contains("id=" + trainingId);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    private void assertSingleStatement(RequestBuilder request, int expectedTrainings, String items) throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(items, hasSize(expectedTrainings)))
+                .andExpect(jsonPath(items + "[0].userId").isNumber())
+                .andExpect(jsonPath(items + "[0].user").doesNotExist());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+}
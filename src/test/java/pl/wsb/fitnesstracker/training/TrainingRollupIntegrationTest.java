@@ -0,0 +1,136 @@
+package pl.wsb.fitnesstracker.training;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.training.internal.TrainingRollupService;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static pl.wsb.fitnesstracker.user.internal.UserApiIntegrationTest.generateUser;
+
+/**
+ * testy nie dzialaja w transakcji testowej, bo treningi zapisywane sa rownolegle w osobnych transakcjach
+ */
+
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class TrainingRollupIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TrainingRollupService trainingRollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // rollupy nie sa sprzatane przez klase bazowa
+    @AfterEach
+    void deleteRollups() {
+        jdbcTemplate.update("delete from training_daily_rollup");
+    }
+
+    @Test
+    void shouldRollUpBothTrainings_whenFirstTrainingsOfUserDayAreCreatedConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 10; round++) {
+                User user = existingUser(generateUser());
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> trainings = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    trainings.add(executor.submit(() -> {
+                        start.await();
+                        createTraining(user);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> training : trainings) {
+                    training.get(10, TimeUnit.SECONDS);
+                }
+
+                assertThat(rollupsOf(user)).singleElement()
+                        .satisfies(rollup -> assertThat(((Number) rollup.get("session_count")).longValue()).isEqualTo(2));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRebuildRollupsOfUsersInRange_fromTheirTrainings() {
+        User user = existingUser(generateUser());
+        User otherUser = existingUser(generateUser());
+        persistTraining(training(user, LocalDateTime.of(2024, 4, 1, 10, 0), 5.0));
+        persistTraining(training(user, LocalDateTime.of(2024, 4, 1, 18, 0), 7.0));
+        insertRollup(user, LocalDate.of(2024, 3, 1), 9);
+        insertRollup(otherUser, LocalDate.of(2024, 3, 1), 9);
+
+        trainingRollupService.rebuildRollups(user.getId(), user.getId());
+
+        assertThat(rollupsOf(user)).singleElement().satisfies(rollup -> {
+            assertThat(rollup.get("training_day")).isEqualTo(Date.valueOf(LocalDate.of(2024, 4, 1)));
+            assertThat(((Number) rollup.get("session_count")).longValue()).isEqualTo(2);
+            assertThat(((Number) rollup.get("distance_sum")).doubleValue()).isEqualTo(12.0);
+            assertThat(((Number) rollup.get("duration_sum")).longValue()).isEqualTo(7200);
+        });
+        assertThat(rollupsOf(otherUser)).singleElement()
+                .satisfies(rollup -> assertThat(((Number) rollup.get("session_count")).longValue()).isEqualTo(9));
+    }
+
+    private void createTraining(User user) throws Exception {
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content("""
+                        {
+                            "userId": %s,
+                            "startTime": "2024-04-01T10:00:00",
+                            "endTime": "2024-04-01T11:00:00",
+                            "activityType": "RUNNING",
+                            "distance": 5.0,
+                            "averageSpeed": 8.2
+                        }
+                        """.formatted(user.getId())))
+                .andExpect(status().isCreated());
+    }
+
+    private static Training training(User user, LocalDateTime start, double distance) {
+        return new Training(user, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1)), ActivityType.RUNNING, distance, 8.0);
+    }
+
+    private void insertRollup(User user, LocalDate day, int sessions) {
+        jdbcTemplate.update("""
+                insert into training_daily_rollup (user_id, training_day, activity_type, session_count, distance_sum, duration_sum)
+                values (?, ?, ?, ?, 0, 0)
+                """, user.getId(), Date.valueOf(day), ActivityType.RUNNING.ordinal(), sessions);
+    }
+
+    private List<Map<String, Object>> rollupsOf(User user) {
+        return jdbcTemplate.queryForList("select * from training_daily_rollup where user_id = ?", user.getId());
+    }
+
+}
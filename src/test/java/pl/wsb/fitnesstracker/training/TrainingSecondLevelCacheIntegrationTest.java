@@ -0,0 +1,139 @@
+package pl.wsb.fitnesstracker.training;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingDto;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.training.internal.TrainingServiceImpl;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.Date;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Entities and query results get into the second-level cache when the loading transaction commits,
+ * that's why this test is not {@code @Transactional}.
+ */
+@IntegrationTest
+class TrainingSecondLevelCacheIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private TrainingServiceImpl trainingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JpaRepository<User, Long> userRepository;
+
+    private Statistics statistics;
+
+    private User user;
+
+    private Training training;
+
+    @BeforeEach
+    void createTrainings() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        user = existingUser(new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString()));
+        training = persistTraining(new Training(user, new Date(1_000_000L), new Date(2_000_000L), ActivityType.RUNNING, 10.5, 8.2));
+        persistTraining(new Training(user, new Date(3_000_000L), new Date(4_000_000L), ActivityType.CYCLING, 25.0, 18.5));
+    }
+
+    @Test
+    void shouldNotExecuteStatements_whenRepeatingTrainingQueries() {
+        statistics.clear();
+        trainingService.getByUser(user.getId());
+        trainingService.getByActivity(ActivityType.RUNNING);
+        trainingService.getAfterDate(new Date(0L));
+        assertThat(statistics.getPrepareStatementCount()).isPositive();
+        statistics.clear();
+
+        assertThat(trainingService.getByUser(user.getId())).hasSize(2);
+        assertThat(trainingService.getByActivity(ActivityType.RUNNING)).hasSize(1);
+        assertThat(trainingService.getAfterDate(new Date(0L))).hasSize(2);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldReadTrainingFromCache_whenGettingTrainingById() {
+        trainingService.getOrThrow(training.getId());
+        statistics.clear();
+
+        assertThat(trainingService.getOrThrow(training.getId()).getId()).isEqualTo(training.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("trainings").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReadUserFromCache_whenGettingUserAgain() {
+        userRepository.findById(user.getId());
+        statistics.clear();
+
+        assertThat(userRepository.findById(user.getId())).isPresent();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("users").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepCachedUser_whenTrainingOfAnotherUserIsCreated() {
+        User other = existingUser(new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString()));
+        userRepository.findById(other.getId());
+
+        trainingService.create(new TrainingDto(null, user.getId(), new Date(5_000_000L), new Date(6_000_000L),
+                ActivityType.WALKING, 3.0, 5.0));
+        statistics.clear();
+
+        assertThat(userRepository.findById(other.getId())).isPresent();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("users").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnNewTraining_whenTrainingCreatedAfterCachedRead() {
+        assertThat(trainingService.getByUser(user.getId())).hasSize(2);
+
+        persistTraining(new Training(user, new Date(5_000_000L), new Date(6_000_000L), ActivityType.WALKING, 3.0, 5.0));
+
+        assertThat(trainingService.getByUser(user.getId())).hasSize(3);
+    }
+
+    @Test
+    void shouldExposeRegionStatistics_whenTrainingsWereRead() {
+        trainingService.getOrThrow(training.getId());
+        trainingService.getOrThrow(training.getId());
+        trainingService.getByUser(user.getId());
+        trainingService.getByUser(user.getId());
+        userRepository.findById(user.getId());
+        userRepository.findById(user.getId());
+
+        assertThat(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", "trainings").tag("result", "hit").functionCounter().count()).isPositive();
+        assertThat(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", "users").tag("result", "hit").functionCounter().count()).isPositive();
+        assertThat(meterRegistry.get("hibernate.cache.query.requests")
+                .tag("result", "hit").functionCounter().count()).isPositive();
+    }
+
+}
@@ -0,0 +1,154 @@
+package pl.wsb.fitnesstracker.training;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * treningi zapisywane sa przez API, zeby podsumowania dzienne byly aktualizowane tak jak w aplikacji;
+ * godziny w srodku dnia, zeby dzien treningu nie zalezal od strefy czasowej
+ */
+
+@IntegrationTest
+@Transactional
+@AutoConfigureMockMvc(addFilters = false)
+class TrainingSummaryIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private User user;
+
+    @BeforeEach
+    void createTrainings() throws Exception {
+        user = existingUser(new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString()));
+        String requestBody = """
+                [
+                    %s,
+                    %s,
+                    %s
+                ]
+                """.formatted(
+                training("2024-03-04T10:00:00", "2024-03-04T10:30:00", "RUNNING", 5.0),
+                training("2024-03-04T12:00:00", "2024-03-04T13:00:00", "CYCLING", 20.0),
+                training("2024-03-06T11:00:00", "2024-03-06T11:45:00", "RUNNING", 10.0));
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                        .content(training("2024-04-02T11:00:00", "2024-04-02T12:00:00", "SWIMMING", 2.0)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void shouldSummarizeEachDayWithTrainings_whenGettingDailySummary() throws Exception {
+        mockMvc.perform(summary("2024-03-01", "2024-04-30", "day"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].periodStart").value("2024-03-04"))
+                .andExpect(jsonPath("$[0].sessions").value(2))
+                .andExpect(jsonPath("$[0].distance").value(25.0))
+                .andExpect(jsonPath("$[0].durationSeconds").value(5400))
+                .andExpect(jsonPath("$[1].periodStart").value("2024-03-06"))
+                .andExpect(jsonPath("$[1].sessions").value(1))
+                .andExpect(jsonPath("$[2].periodStart").value("2024-04-02"))
+                .andExpect(jsonPath("$[2].distance").value(2.0));
+    }
+
+    @Test
+    void shouldSummarizeIsoWeeks_whenGettingWeeklySummary() throws Exception {
+        mockMvc.perform(summary("2024-03-01", "2024-04-30", "week"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].periodStart").value("2024-03-04"))
+                .andExpect(jsonPath("$[0].sessions").value(3))
+                .andExpect(jsonPath("$[0].distance").value(35.0))
+                .andExpect(jsonPath("$[0].durationSeconds").value(8100))
+                .andExpect(jsonPath("$[1].periodStart").value("2024-04-01"))
+                .andExpect(jsonPath("$[1].sessions").value(1));
+    }
+
+    @Test
+    void shouldCountOnlyDaysInRange_whenGettingMonthlySummary() throws Exception {
+        mockMvc.perform(summary("2024-03-05", "2024-04-01", "month"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].periodStart").value("2024-03-01"))
+                .andExpect(jsonPath("$[0].sessions").value(1))
+                .andExpect(jsonPath("$[0].distance").value(10.0));
+    }
+
+    @Test
+    void shouldMoveTrainingBetweenDays_whenUpdatingTraining() throws Exception {
+        String created = mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                        .content(training("2024-03-06T14:00:00", "2024-03-06T15:00:00", "WALKING", 4.0)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Number trainingId = JsonPath.read(created, "$.id");
+
+        mockMvc.perform(put("/v1/trainings/{trainingId}", trainingId).contentType(MediaType.APPLICATION_JSON)
+                        .content(training("2024-03-08T14:00:00", "2024-03-08T14:30:00", "WALKING", 3.0)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(summary("2024-03-06", "2024-03-08", "day"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].periodStart").value("2024-03-06"))
+                .andExpect(jsonPath("$[0].sessions").value(1))
+                .andExpect(jsonPath("$[0].distance").value(10.0))
+                .andExpect(jsonPath("$[1].periodStart").value("2024-03-08"))
+                .andExpect(jsonPath("$[1].sessions").value(1))
+                .andExpect(jsonPath("$[1].distance").value(3.0))
+                .andExpect(jsonPath("$[1].durationSeconds").value(1800));
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenGranularityIsUnknown() throws Exception {
+        mockMvc.perform(summary("2024-03-01", "2024-04-30", "year"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenRangeIsEmpty() throws Exception {
+        mockMvc.perform(summary("2024-04-30", "2024-03-01", "day"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private RequestBuilder summary(String from, String to, String granularity) {
+        return get("/v1/trainings/{userId}/summary", user.getId())
+                .param("from", from)
+                .param("to", to)
+                .param("granularity", granularity);
+    }
+
+    private String training(String startTime, String endTime, String activityType, double distance) {
+        return """
+                {
+                    "userId": "%s",
+                    "startTime": "%s",
+                    "endTime": "%s",
+                    "activityType": "%s",
+                    "distance": %s,
+                    "averageSpeed": 0.0
+                }
+                """.formatted(user.getId(), startTime, endTime, activityType, distance);
+    }
+
+}
@@ -0,0 +1,93 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.QueryPlanTestBase;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * pilnuje, zeby kazde zapytanie repozytorium treningow korzystalo z indeksu, a nie skanowalo calej tabeli;
+ * oraz zeby podsumowania zakresu dat czytaly tylko dni z zakresu;
+ * pelny eksport (streamAllForExport) celowo czyta cala tabele, wiec nie jest tu sprawdzany
+ * H2 zaklada wlasny indeks pod klucz obcy user_id i przy samym warunku na usera wybiera go zamiast
+ * ix_trainings_user_id_start_time, dlatego te zapytania sprawdzaja tylko, ze tabela jest przeszukiwana po user_id;
+ * kolejne strony treningow usera (warunek takze na start_time) musza korzystac z ix_trainings_user_id_start_time
+ */
+
+@IntegrationTest
+class TrainingRepositoryQueryPlanIntegrationTest extends QueryPlanTestBase {
+
+    private static final String TRAININGS = "trainings";
+
+    private static final Date DATE = new Date(1_000_000L);
+
+    @Autowired
+    private TrainingRepository trainingRepository;
+
+    @Autowired
+    private TrainingDailyRollupRepository rollupRepository;
+
+    @Test
+    void shouldSeekById_whenFindingTrainingWithUserById() {
+        assertSeeksBy(TRAININGS, "id", () -> trainingRepository.findWithUserById(1L));
+    }
+
+    @Test
+    void shouldSeekByUserId_whenFindingTrainingsWithUserByUserId() {
+        assertSeeksBy(TRAININGS, "user_id",
+                () -> trainingRepository.findAllWithUserByUserIdOrderById(1L));
+    }
+
+    @Test
+    void shouldSeekByUserId_whenFindingTrainingsByUserId() {
+        assertSeeksBy(TRAININGS, "user_id",
+                () -> trainingRepository.findAllByUserId(1L));
+    }
+
+    @Test
+    void shouldUseEndTimeIndex_whenFindingTrainingsFinishedAfterDate() {
+        assertUsesIndex(TRAININGS, "ix_trainings_end_time",
+                () -> trainingRepository.findAllByEndTimeAfter(DATE));
+    }
+
+    @Test
+    void shouldUseActivityTypeIndex_whenFindingTrainingsByActivityType() {
+        assertUsesIndex(TRAININGS, "ix_trainings_activity_type_start_time",
+                () -> trainingRepository.findAllByActivityType(ActivityType.RUNNING));
+    }
+
+    @Test
+    void shouldUseStartTimeIndex_whenGettingFirstPage() {
+        assertUsesIndex(TRAININGS, "ix_trainings_start_time",
+                () -> trainingRepository.findFirstPage(Limit.of(20)));
+    }
+
+    @Test
+    void shouldUseStartTimeIndex_whenGettingNextPage() {
+        assertUsesIndex(TRAININGS, "ix_trainings_start_time",
+                () -> trainingRepository.findPageAfter(DATE, 1L, Limit.of(20)));
+    }
+
+    @Test
+    void shouldSeekByUserId_whenGettingFirstPageOfUser() {
+        assertSeeksBy(TRAININGS, "user_id",
+                () -> trainingRepository.findFirstPageByUser(1L, Limit.of(20)));
+    }
+
+    @Test
+    void shouldUseUserIdStartTimeIndex_whenGettingNextPageOfUser() {
+        assertUsesIndex(TRAININGS, "ix_trainings_user_id_start_time",
+                () -> trainingRepository.findPageByUserAfter(1L, DATE, 1L, Limit.of(20)));
+    }
+
+    @Test
+    void shouldUseUserDayIndex_whenSummingDaysOfUser() {
+        assertUsesIndex("training_daily_rollup", "ix_training_daily_rollup_user_id_day",
+                () -> rollupRepository.sumDaysOfUser(1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+    }
+
+}
@@ -1,5 +1,6 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -25,7 +26,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @IntegrationTest
 @Transactional
 @AutoConfigureMockMvc(addFilters = false)
-class UserApiIntegrationTest extends IntegrationTestBase {
+public class UserApiIntegrationTest extends IntegrationTestBase {
 
     @Autowired
     private MockMvc mockMvc;
@@ -58,24 +59,6 @@ class UserApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[2]").doesNotExist());
     }
 
-    @Test
-    void shouldReturnAllSimpleUsers_whenGettingAllUsers() throws Exception {
-        User user1 = existingUser(generateUser());
-        User user2 = existingUser(generateUser());
-
-        mockMvc.perform(get("/v1/users/simple").contentType(MediaType.APPLICATION_JSON))
-                .andDo(log())
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$[0].lastName").value(user1.getLastName()))
-
-                .andExpect(jsonPath("$[1].firstName").value(user2.getFirstName()))
-                .andExpect(jsonPath("$[1].lastName").value(user2.getLastName()))
-
-                .andExpect(jsonPath("$[2]").doesNotExist());
-    }
-
     @Test
     void shouldReturnDetailsAboutUser_whenGettingUserById() throws Exception {
         User user1 = existingUser(generateUser());
@@ -103,6 +86,127 @@ class UserApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$[0].email").value(user1.getEmail()));
     }
 
+    @Test
+    void shouldReturnUsersContainingFragment_whenSearchingByEmailFragment() throws Exception {
+        User user1 = existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 3, 1), "Emma.Johnson@Domain.com"));
+        User user2 = existingUser(new User("Ethan", "Johnson", LocalDate.of(1973, 5, 2), "ethan.johnson@other.com"));
+        existingUser(new User("Olivia", "Davis", LocalDate.of(1948, 1, 3), "olivia.davis@domain.com"));
+
+        mockMvc.perform(get("/v1/users/email").param("email", "JOHNSON@").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(user1.getId().intValue()))
+                .andExpect(jsonPath("$[1].id").value(user2.getId().intValue()));
+
+        mockMvc.perform(get("/v1/users/email").param("email", "johnson").param("limit", "1").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(user1.getId().intValue()));
+
+        mockMvc.perform(get("/v1/users/email").param("email", "o").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+    }
+
+    @Test
+    void shouldSearchByCurrentEmail_whenUserEmailWasUpdatedOrUserDeleted() throws Exception {
+        User user1 = existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 3, 1), "emma.johnson@domain.com"));
+        User user2 = existingUser(new User("Ethan", "Taylor", LocalDate.of(1973, 5, 2), "ethan.taylor@domain.com"));
+
+        mockMvc.perform(put("/v1/users/{id}", user1.getId()).contentType(MediaType.APPLICATION_JSON).content("""
+                        {"firstName": "Emma", "lastName": "Smith", "birthdate": "1996-03-01", "email": "emma.smith@domain.com"}
+                        """))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/v1/users/{id}", user2.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/v1/users/email").param("email", "johnson").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/v1/users/email").param("email", "taylor").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/v1/users/email").param("email", "smith").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(user1.getId().intValue()));
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenSearchingByEmailWithNonPositiveLimit() throws Exception {
+        mockMvc.perform(get("/v1/users/email").param("email", "johnson").param("limit", "0").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnMatchingUsers_whenSearchingUsersByCriteria() throws Exception {
+        User user1 = existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 3, 1), "emma.johnson@domain.com"));
+        User user2 = existingUser(new User("Ethan", "Johnson", LocalDate.of(1973, 5, 2), "ethan.johnson@domain.com"));
+        existingUser(new User("Emma", "Davis", LocalDate.of(1996, 3, 1), "emma.davis@domain.com"));
+
+        mockMvc.perform(get("/v1/users/search").param("lastName", "JOHNSON").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].email").value(user1.getEmail()))
+                .andExpect(jsonPath("$[1].email").value(user2.getEmail()));
+
+        mockMvc.perform(get("/v1/users/search").param("firstName", "emma").param("birthdate", "1996-03-01").param("lastName", "Johnson")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].email").value(user1.getEmail()));
+
+        mockMvc.perform(get("/v1/users/search").param("email", "Ethan.Johnson@Domain.com").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].email").value(user2.getEmail()));
+    }
+
+    @Test
+    void shouldReturnRequestedPage_whenSearchingUsersWithPaginationAndSorting() throws Exception {
+        User user1 = existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 3, 1), "emma.johnson@domain.com"));
+        User user2 = existingUser(new User("Ethan", "Johnson", LocalDate.of(1973, 5, 2), "ethan.johnson@domain.com"));
+        User user3 = existingUser(new User("Olivia", "Johnson", LocalDate.of(1948, 1, 3), "olivia.johnson@domain.com"));
+
+        mockMvc.perform(get("/v1/users/search").param("lastName", "johnson").param("sort", "birthdate")
+                        .param("page", "0").param("size", "2").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].email").value(user3.getEmail()))
+                .andExpect(jsonPath("$[1].email").value(user2.getEmail()));
+
+        mockMvc.perform(get("/v1/users/search").param("lastName", "johnson").param("sort", "birthdate")
+                        .param("page", "1").param("size", "2").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].email").value(user1.getEmail()));
+
+        mockMvc.perform(get("/v1/users/search").param("sort", "emailNormalized").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnEachUserOnce_whenPagingThroughUsersWithSameLastName() throws Exception {
+        User user1 = existingUser(new User("Olivia", "Johnson", LocalDate.of(1948, 1, 3), "olivia.johnson@domain.com"));
+        User user2 = existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 3, 1), "emma.johnson@domain.com"));
+        User user3 = existingUser(new User("Ethan", "Johnson", LocalDate.of(1973, 5, 2), "ethan.johnson@domain.com"));
+
+        mockMvc.perform(get("/v1/users/search").param("sort", "lastName").param("page", "0").param("size", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].email").value(user1.getEmail()))
+                .andExpect(jsonPath("$[1].email").value(user2.getEmail()));
+
+        mockMvc.perform(get("/v1/users/search").param("sort", "lastName").param("page", "1").param("size", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].email").value(user3.getEmail()));
+    }
+
     @Test
     void shouldReturnAllUsersOlderThan_whenGettingAllUsersOlderThan() throws Exception {
         User user1 = existingUser(generateUserWithDate(LocalDate.of(2000, 8, 11)));
@@ -112,12 +216,57 @@ class UserApiIntegrationTest extends IntegrationTestBase {
         mockMvc.perform(get("/v1/users/older/{time}", LocalDate.of(2024, 8, 10)).contentType(MediaType.APPLICATION_JSON))
                 .andDo(log())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$[0].lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$[0].birthdate").value(ISO_DATE.format(user1.getBirthdate())))
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items[0].firstName").value(user1.getFirstName()))
+                .andExpect(jsonPath("$.items[0].lastName").value(user1.getLastName()))
+                .andExpect(jsonPath("$.items[0].birthdate").value(ISO_DATE.format(user1.getBirthdate())))
+
+                .andExpect(jsonPath("$.items[1]").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void shouldReturnUsersOlderThanPageByPage_whenGettingUsersOlderThanWithCursor() throws Exception {
+        User user1 = existingUser(generateUserWithDate(LocalDate.of(1990, 1, 1)));
+        User user2 = existingUser(generateUserWithDate(LocalDate.of(1980, 1, 1)));
+        User user3 = existingUser(generateUserWithDate(LocalDate.of(1980, 1, 1)));
+        existingUser(generateUserWithDate(LocalDate.of(2024, 8, 11)));
+
+        String firstPage = mockMvc.perform(get("/v1/users/older/{time}", LocalDate.of(2024, 8, 10)).param("limit", "2"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].email").value(user2.getEmail()))
+                .andExpect(jsonPath("$.items[1].email").value(user3.getEmail()))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(firstPage, "$.nextCursor");
+
+        mockMvc.perform(get("/v1/users/older/{time}", LocalDate.of(2024, 8, 10)).param("limit", "2").param("cursor", cursor))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].email").value(user1.getEmail()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void shouldReturnCountOnly_whenCountingUsersOlderThan() throws Exception {
+        existingUser(generateUserWithDate(LocalDate.of(1990, 1, 1)));
+        existingUser(generateUserWithDate(LocalDate.of(1980, 1, 1)));
+        existingUser(generateUserWithDate(LocalDate.of(2024, 8, 11)));
+
+        mockMvc.perform(get("/v1/users/older/{time}", LocalDate.of(2024, 8, 10)).param("countOnly", "true"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.items").doesNotExist());
+    }
 
-                .andExpect(jsonPath("$[1]").doesNotExist());
+    @Test
+    void shouldReturnBadRequest_whenGettingUsersOlderThanWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/v1/users/older/{time}", LocalDate.of(2024, 8, 10)).param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
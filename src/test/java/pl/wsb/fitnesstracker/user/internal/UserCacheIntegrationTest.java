@@ -0,0 +1,108 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+import pl.wsb.fitnesstracker.user.api.UserService;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static pl.wsb.fitnesstracker.user.internal.UserApiIntegrationTest.generateUser;
+
+/**
+ * Users are cached only after the transaction loading them commits, so this test is not {@code @Transactional}.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "management.endpoints.web.exposure.include=metrics")
+class UserCacheIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private UserProvider userProvider;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldServeRepeatedReadsFromCache_whenGettingUserById() {
+        User user = existingUser(generateUser());
+        double hits = cacheGets("hit");
+        double misses = cacheGets("miss");
+
+        assertThat(userProvider.getUser(user.getId())).isPresent();
+        assertThat(userProvider.getUser(user.getId())).isPresent();
+        assertThat(userProvider.getUser(user.getId())).isPresent();
+
+        assertThat(cacheGets("miss") - misses).isEqualTo(1);
+        assertThat(cacheGets("hit") - hits).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReturnUpdatedUser_whenUserWasUpdatedAfterBeingCached() {
+        User user = existingUser(generateUser());
+        assertThat(userProvider.getUser(user.getId())).isPresent();
+
+        userService.updateUser(user.getId(), new User("Changed", "Name", LocalDate.of(1990, 1, 1), "changed@domain.com"));
+
+        assertThat(userProvider.getUser(user.getId()))
+                .hasValueSatisfying(cached -> assertThat(cached.getFirstName()).isEqualTo("Changed"));
+    }
+
+    @Test
+    void shouldReturnEmpty_whenUserWasDeletedAfterBeingCached() {
+        User user = existingUser(generateUser());
+        assertThat(userProvider.getUser(user.getId())).isPresent();
+
+        userService.deleteUser(user.getId());
+
+        assertThat(userProvider.getUser(user.getId())).isEmpty();
+    }
+
+    @Test
+    void shouldNotCacheUser_whenLoadingTransactionRolledBack() {
+        User user = existingUser(generateUser());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(userProvider.getUser(user.getId())).isPresent();
+            status.setRollbackOnly();
+        });
+        double misses = cacheGets("miss");
+
+        assertThat(userProvider.getUser(user.getId())).isPresent();
+
+        assertThat(cacheGets("miss") - misses).isEqualTo(1);
+    }
+
+    @Test
+    void shouldExposeCacheMetrics_whenRequestingActuatorMetrics() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:" + UserCache.NAME))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("cache.gets"));
+        mockMvc.perform(get("/actuator/metrics/cache.evictions").param("tag", "cache:" + UserCache.NAME))
+                .andExpect(status().isOk());
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", UserCache.NAME).tag("result", result).functionCounter().count();
+    }
+
+}
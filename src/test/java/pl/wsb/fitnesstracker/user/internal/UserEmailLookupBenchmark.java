@@ -0,0 +1,71 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.BenchmarkData;
+import pl.wsb.fitnesstracker.BenchmarkTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the latency of {@link UserProvider#getUserByEmail(String)} as the users table grows to 1M rows.
+ * With the lookup on the unique index, the latency should stay (nearly) constant.
+ */
+@BenchmarkTest
+@Slf4j
+class UserEmailLookupBenchmark extends IntegrationTestBase {
+
+    private static final int[] TABLE_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int LOOKUPS = 20_000;
+
+    @Autowired
+    private UserProvider userProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteUsers() {
+        BenchmarkData.deleteUsers(jdbcTemplate);
+    }
+
+    @Test
+    void lookupLatencyShouldNotGrowWithTableSize() {
+        int inserted = 0;
+        List<Double> latencies = new ArrayList<>();
+        for (int size : TABLE_SIZES) {
+            BenchmarkData.insertUsers(jdbcTemplate, inserted + 1, size);
+            inserted = size;
+            measureLookups(size, LOOKUPS);
+            double latency = measureLookups(size, LOOKUPS);
+            latencies.add(latency);
+            log.info("{} users: {} us per email lookup", size, "%.1f".formatted(latency));
+        }
+
+        assertThat(latencies.get(latencies.size() - 1)).isLessThan(latencies.get(0) * 3);
+    }
+
+    private double measureLookups(int size, int lookups) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            String email = BenchmarkData.email(random.nextInt(size) + 1);
+            // every other lookup uses different case than the stored email
+            if (i % 2 == 0) {
+                email = email.toUpperCase();
+            }
+            assertThat(userProvider.getUserByEmail(email)).isPresent();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / lookups;
+    }
+
+}
@@ -0,0 +1,88 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.BenchmarkData;
+import pl.wsb.fitnesstracker.BenchmarkTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.UserListItemDto;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the heap allocated per simple user list request by the previous read path (loading all {@code User}
+ * entities and mapping them to {@link UserListItemDto}) and by the streamed projection.
+ */
+@BenchmarkTest
+@Slf4j
+class UserListAllocationBenchmark extends IntegrationTestBase {
+
+    private static final int USERS = 100_000;
+    private static final int REQUESTS = 5;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void deleteUsers() {
+        BenchmarkData.deleteUsers(jdbcTemplate);
+    }
+
+    @Test
+    void projectionShouldAllocateLessThanEntities() {
+        BenchmarkData.insertUsers(jdbcTemplate, 1, USERS);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        Runnable entities = () -> transaction.executeWithoutResult(status -> {
+            List<UserListItemDto> users = userRepository.findAll().stream()
+                    .map(user -> new UserListItemDto(user.getId(), user.getFirstName(), user.getLastName(), null))
+                    .toList();
+            assertThat(users).hasSize(USERS);
+        });
+        Runnable projection = () -> {
+            LongAdder count = new LongAdder();
+            userService.forEachSimpleUser(user -> count.increment());
+            assertThat(count.sum()).isEqualTo(USERS);
+        };
+
+        measureAllocation(entities);
+        measureAllocation(projection);
+        long entityBytes = measureAllocation(entities);
+        long projectionBytes = measureAllocation(projection);
+        log.info("{} users: entities {} KB, projection {} KB allocated per request",
+                USERS, entityBytes / 1024, projectionBytes / 1024);
+
+        assertThat(projectionBytes).isLessThan(entityBytes / 2);
+    }
+
+    private static long measureAllocation(Runnable request) {
+        long start = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < REQUESTS; i++) {
+            request.run();
+        }
+        return (THREADS.getCurrentThreadAllocatedBytes() - start) / REQUESTS;
+    }
+
+}
@@ -0,0 +1,73 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static pl.wsb.fitnesstracker.user.internal.UserApiIntegrationTest.generateUser;
+
+/**
+ * Simple user lists are written asynchronously (outside of the request thread), so the test data has to be committed
+ * before the request is made - that's why this test is not {@code @Transactional}.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class UserListStreamingIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldReturnAllSimpleUsers_whenGettingAllUsers() throws Exception {
+        User user1 = existingUser(generateUser());
+        User user2 = existingUser(generateUser());
+
+        MvcResult result = mockMvc.perform(get("/v1/users/simple").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$[0].firstName").value(user1.getFirstName()))
+                .andExpect(jsonPath("$[0].lastName").value(user1.getLastName()))
+
+                .andExpect(jsonPath("$[1].firstName").value(user2.getFirstName()))
+                .andExpect(jsonPath("$[1].lastName").value(user2.getLastName()))
+
+                .andExpect(jsonPath("$[2]").doesNotExist());
+    }
+
+    @Test
+    void shouldReturnBasicUsersWithoutEmail_whenGettingBasicUsers() throws Exception {
+        User user1 = existingUser(generateUser());
+        User user2 = existingUser(generateUser());
+
+        MvcResult result = mockMvc.perform(get("/v1/users/basic"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(user1.getId()))
+                .andExpect(jsonPath("$[0].firstName").value(user1.getFirstName()))
+                .andExpect(jsonPath("$[0].email").doesNotExist())
+                .andExpect(jsonPath("$[1].id").value(user2.getId()))
+                .andExpect(jsonPath("$[2]").doesNotExist());
+    }
+
+}
@@ -0,0 +1,81 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.BenchmarkData;
+import pl.wsb.fitnesstracker.BenchmarkTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.pagination.api.CursorPage;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserService;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Walks all users older than an early cutoff matching 90% of 1M users page by page.
+ * With the range scan of the (birthdate, id) index, the latency of the last pages should stay close to the first ones
+ * and only a single page is held in memory at a time.
+ */
+@BenchmarkTest
+@Slf4j
+class UserOlderThanBenchmark extends IntegrationTestBase {
+
+    private static final int USERS = 1_000_000;
+    private static final LocalDate CUTOFF = BenchmarkData.FIRST_BIRTHDATE.plusDays(BenchmarkData.BIRTHDATE_DAYS * 9 / 10);
+    private static final int PAGE_SIZE = CursorPage.MAX_LIMIT;
+    private static final int MEASURED_PAGES = 100;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteUsers() {
+        BenchmarkData.deleteUsers(jdbcTemplate);
+    }
+
+    @Test
+    void pageLatencyShouldNotGrowWithPosition() {
+        BenchmarkData.insertUsers(jdbcTemplate, 1, USERS);
+
+        long countStart = System.nanoTime();
+        long expected = userService.countUsersOlderThan(CUTOFF);
+        log.info("count of {} users older than {}: {} ms", expected, CUTOFF, (System.nanoTime() - countStart) / 1_000_000);
+
+        long walked = 0;
+        long pages = 0;
+        long firstPagesNanos = 0;
+        long lastPagesNanos = 0;
+        long totalPages = (expected + PAGE_SIZE - 1) / PAGE_SIZE;
+        String cursor = null;
+        do {
+            long start = System.nanoTime();
+            CursorPage<User> page = userService.findUsersOlderThan(CUTOFF, cursor, PAGE_SIZE);
+            long elapsed = System.nanoTime() - start;
+            if (pages < MEASURED_PAGES) {
+                firstPagesNanos += elapsed;
+            } else if (pages >= totalPages - MEASURED_PAGES) {
+                lastPagesNanos += elapsed;
+            }
+            walked += page.items().size();
+            pages++;
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        double firstPageLatency = firstPagesNanos / 1_000.0 / MEASURED_PAGES;
+        double lastPageLatency = lastPagesNanos / 1_000.0 / MEASURED_PAGES;
+        log.info("{} pages: first pages {} us, last pages {} us per page", pages,
+                "%.1f".formatted(firstPageLatency), "%.1f".formatted(lastPageLatency));
+
+        assertThat(walked).isEqualTo(expected);
+        assertThat(lastPageLatency).isLessThan(firstPageLatency * 3);
+    }
+
+}
@@ -0,0 +1,66 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * testy nie dzialaja w transakcji testowej, bo naruszenie unikalnego indeksu psuje sesje hibernate
+ */
+
+@IntegrationTest
+class UserRepositoryIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldFindUserIgnoringCase_whenSearchingByEmail() {
+        User user = existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 3, 1), "Emma.Johnson@Domain.com"));
+
+        assertThat(userRepository.findByEmail("emma.johnson@domain.com")).map(User::getId).contains(user.getId());
+        assertThat(userRepository.findByEmail("EMMA.JOHNSON@DOMAIN.COM")).map(User::getId).contains(user.getId());
+        assertThat(userRepository.findByEmail("emma@domain.com")).isEmpty();
+    }
+
+    @Test
+    void shouldRejectUser_whenEmailDiffersOnlyInCase() {
+        existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 3, 1), "emma.johnson@domain.com"));
+
+        assertThatThrownBy(() -> userRepository.saveAndFlush(new User("Emma", "Johnson", LocalDate.of(1996, 3, 1), "EMMA.johnson@domain.com")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void shouldReindexEmailTrigrams_onlyWhenEmailChanges() {
+        User user = existingUser(new User("Emma", "Johnson", LocalDate.of(1996, 3, 1), "emma.johnson@domain.com"));
+        // wpis spoza trigramow emaila pokazuje, czy trigramy usera zostaly zapisane od nowa
+        jdbcTemplate.update("insert into user_email_trigrams (trigram, user_id) values ('###', ?)", user.getId());
+
+        user.setFirstName("Emily");
+        userRepository.saveAndFlush(user);
+        assertThat(trigramsOf(user)).contains("###", "emm", "joh");
+
+        user.setEmail("emily.smith@domain.com");
+        userRepository.saveAndFlush(user);
+        assertThat(trigramsOf(user)).contains("emi", "smi").doesNotContain("###", "emm", "joh");
+    }
+
+    private List<String> trigramsOf(User user) {
+        return jdbcTemplate.queryForList("select trigram from user_email_trigrams where user_id = ?", String.class, user.getId());
+    }
+
+}
@@ -0,0 +1,69 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * sprawdza, ze wyszukiwanie userow wykonuje jedno zapytanie SELECT niezaleznie od liczby podanych kryteriow
+ * i od paginacji (bez dodatkowego zapytania liczacego)
+ */
+
+@IntegrationTest
+@Transactional
+@AutoConfigureMockMvc(addFilters = false)
+class UserSearchQueryCountIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void shouldExecuteSingleSelect_whenSearchingUsers() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            existingUser(new User("Emma", "Johnson" + i % 2, LocalDate.of(1996, 3, 1), "emma.johnson%d@domain.com".formatted(i)));
+        }
+        statistics.clear();
+
+        mockMvc.perform(get("/v1/users/search").param("firstName", "EMMA").param("lastName", "johnson0")
+                        .param("size", "2").param("sort", "birthdate").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        mockMvc.perform(get("/v1/users/search").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(5)));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+}